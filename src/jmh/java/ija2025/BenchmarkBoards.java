@@ -0,0 +1,61 @@
+/*
+ * BenchmarkBoards.java
+ *
+ * Authors: Zhdanovich Iaroslav (xzhdan00)
+ *          Malytskyi Denys     (xmalytd00)
+ *
+ * Description: Deterministic boards of any size for the JMH benchmarks of the
+ * "lightbulb" project. The board is a comb: the power source sits in the top-left
+ * corner, a wire trunk runs along the top row, every column hangs down from it as
+ * a straight wire and ends with a bulb in the bottom row. Every cell is used and
+ * the solved board is fully powered, so results are comparable between runs.
+ */
+
+
+package ija2025;
+
+import java.util.EnumSet;
+
+final class BenchmarkBoards {
+
+    private BenchmarkBoards() {
+    }
+
+    // Builds a solved size x size comb board (size >= 2) and runs a full power update
+    static GameManager comb(int size) {
+        GameManager gameManager = new GameManager(GameManager.Difficulty.EASY, size, 0);
+
+        PowerNode power = new PowerNode(0, 0);
+        gameManager.placeNode(power);
+        power.setActiveDirections(EnumSet.of(WireNode.Direction.RIGHT, WireNode.Direction.DOWN));
+
+        for (int col = 0; col < size; col++) {
+            for (int row = 0; row < size; row++) {
+                if (row == 0 && col == 0) {
+                    continue;
+                }
+                if (row == size - 1) {
+                    // Bulb rotation 0 faces up, into the column above it
+                    gameManager.placeNode(new LightBulbNode(row, col));
+                    continue;
+                }
+
+                WireNode wire = new WireNode(row, col);
+                gameManager.placeNode(wire);
+                wire.addConnection(WireNode.Direction.DOWN);
+                if (row == 0) {
+                    // Trunk cell: fed from the left, passes power on to the right
+                    wire.addConnection(WireNode.Direction.LEFT);
+                    if (col < size - 1) {
+                        wire.addConnection(WireNode.Direction.RIGHT);
+                    }
+                } else {
+                    wire.addConnection(WireNode.Direction.UP);
+                }
+            }
+        }
+
+        gameManager.updatePowerFlow();
+        return gameManager;
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * GenerationBenchmark.java
+ *
+ * Authors: Zhdanovich Iaroslav (xzhdan00)
+ *          Malytskyi Denys     (xmalytd00)
+ *
+ * Description: JMH benchmark comparing the board generators of the "lightbulb"
+ * project (path routing and spanning tree) on every difficulty. Measures the whole
+ * generateGameBoard call on a fresh game manager, including shuffling and the
+ * initial power update. Boards come from a fixed corpus of seeds, so every run
+ * generates the same boards.
+ * Run with: mvn -Pbenchmark compile exec:exec -Djmh.include=GenerationBenchmark
+ */
+
+
+package ija2025;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xss512k")
+public class GenerationBenchmark {
+
+    @Param({"EASY", "MEDIUM", "HARD"})
+    public GameManager.Difficulty difficulty;
+
+    @Param({"PATH_ROUTING", "SPANNING_TREE"})
+    public GameManager.GeneratorType generator;
+
+    // Seeds of the corpus are 0 .. CORPUS_SIZE - 1, generated in turn
+    private static final int CORPUS_SIZE = 64;
+    private int nextSeed = 0;
+
+    @Benchmark
+    public GameManager generateGameBoard() {
+        GameManager gameManager = new GameManager(difficulty, nextSeed);
+        nextSeed = (nextSeed + 1) % CORPUS_SIZE;
+        gameManager.setGeneratorType(generator);
+        gameManager.generateGameBoard();
+        return gameManager;
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * LargeBoardBenchmark.java
+ *
+ * Authors: Zhdanovich Iaroslav (xzhdan00)
+ *          Malytskyi Denys     (xmalytd00)
+ *
+ * Description: JMH stress benchmark of the "lightbulb" project on large square and
+ * non-square boards up to 500x500. Measures the generation of a whole board with
+ * each generator and the latency of a single move (one rotation with the power
+ * update) on a generated board.
+ * Run with: mvn -Pbenchmark compile exec:exec -Djmh.include=LargeBoardBenchmark
+ */
+
+
+package ija2025;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xss512k")
+public class LargeBoardBenchmark {
+
+    // ROWSxCOLS
+    @Param({"100x100", "500x500", "100x500", "500x100"})
+    public String shape;
+
+    @Param({"PATH_ROUTING", "SPANNING_TREE"})
+    public GameManager.GeneratorType generator;
+
+    private int rows;
+    private int cols;
+    private long nextSeed = 0;
+
+    // Board the moves are played on and the tiles clicked in turn
+    private GameManager gameManager;
+    private GameNode[] moveTiles;
+    private int nextMove = 0;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        int separator = shape.indexOf('x');
+        rows = Integer.parseInt(shape.substring(0, separator));
+        cols = Integer.parseInt(shape.substring(separator + 1));
+
+        gameManager = newBoard(-1);
+        gameManager.generateGameBoard();
+
+        // Every tile except the sources, in a fixed random order
+        List<GameNode> tiles = new ArrayList<>();
+        for (GameNode[] row : gameManager.getGrid()) {
+            for (GameNode node : row) {
+                if (node != null && !(node instanceof PowerNode)) {
+                    tiles.add(node);
+                }
+            }
+        }
+        Collections.shuffle(tiles, new Random(0));
+        moveTiles = tiles.toArray(new GameNode[0]);
+    }
+
+    private GameManager newBoard(long seed) {
+        GameManager board = new GameManager(GameManager.Difficulty.HARD, rows, cols, seed);
+        board.setGeneratorType(generator);
+        return board;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public GameManager generateGameBoard() {
+        GameManager board = newBoard(nextSeed++);
+        board.generateGameBoard();
+        return board;
+    }
+
+    // One click on the next tile of the sequence, including the incremental power update
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public int move() {
+        GameNode tile = moveTiles[nextMove];
+        nextMove = nextMove + 1 == moveTiles.length ? 0 : nextMove + 1;
+        tile.rotate();
+        return gameManager.updatePowerFlowAfterRotation(tile).getChangeCount();
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * ParallelSolverBenchmark.java
+ *
+ * Authors: Zhdanovich Iaroslav (xzhdan00)
+ *          Malytskyi Denys     (xmalytd00)
+ *
+ * Description: JMH benchmark of the parallel solving mode of the "lightbulb" project
+ * on large generated boards. Solves the same shuffled board with the sequential
+ * solver and with the parallel solver on fork/join pools of 1 to 8 workers (threads).
+ * Each trial prints the number of processors available to it: workers beyond that
+ * number only share the same cores, so the scaling from 1 to N workers is meaningful
+ * only for N up to the number of cores of the machine. The search is always split into
+ * the same number of subtrees, so every pool size runs the same searches and finds
+ * the same solution; only the number of workers sharing them changes. A solve of a
+ * large board takes seconds, so every measurement is a single solve. The default
+ * boards are the rare seeds above 200x200 the sequential solver finishes in a few
+ * seconds; most seeds of that size take minutes or more.
+ * Run with: mvn -Pbenchmark compile exec:exec -Djmh.include=ParallelSolverBenchmark
+ */
+
+
+package ija2025;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xss512k")
+public class ParallelSolverBenchmark {
+
+    // ROWSxCOLS
+    @Param({"250x250"})
+    public String shape;
+
+    // GENERATOR:SEED
+    @Param({"SPANNING_TREE:28", "PATH_ROUTING:22"})
+    public String board;
+
+    // Subtrees the parallel search is split into, independent of the workers
+    @Param({"16"})
+    public int subtrees;
+
+    // Workers (threads) of the fork/join pool of the parallel solver
+    @Param({"1", "2", "4", "8"})
+    public int workers;
+
+    private GameManager gameManager;
+    private ForkJoinPool pool;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        int separator = shape.indexOf('x');
+        int rows = Integer.parseInt(shape.substring(0, separator));
+        int cols = Integer.parseInt(shape.substring(separator + 1));
+        separator = board.indexOf(':');
+        long seed = Long.parseLong(board.substring(separator + 1));
+
+        gameManager = new GameManager(GameManager.Difficulty.HARD, rows, cols, seed);
+        gameManager.setGeneratorType(GameManager.GeneratorType.valueOf(board.substring(0, separator)));
+        gameManager.generateGameBoard();
+        pool = new ForkJoinPool(workers);
+        System.out.println(workers + " workers on " + Runtime.getRuntime().availableProcessors()
+                + " available processors");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    // Baseline; does not depend on the number of workers
+    @Benchmark
+    public boolean sequential() {
+        return new BoardSolver(gameManager.getBoardState()).solve(gameManager);
+    }
+
+    @Benchmark
+    public boolean parallel() {
+        ParallelBoardSolver solver = new ParallelBoardSolver(gameManager.getBoardState(), pool);
+        solver.setSubtreeCount(subtrees);
+        return solver.solve(gameManager);
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * PowerFlowBenchmark.java
+ *
+ * Authors: Zhdanovich Iaroslav (xzhdan00)
+ *          Malytskyi Denys     (xmalytd00)
+ *
+ * Description: JMH benchmarks of the click path in the "lightbulb" project:
+ * full power recomputation, the incremental update after a single rotation and
+ * win detection, on deterministic boards from 5x5 up to 1000x1000.
+ * Run with: mvn -Pbenchmark compile exec:exec
+ */
+
+
+package ija2025;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xss512k")
+public class PowerFlowBenchmark {
+
+    @Param({"5", "10", "100", "1000"})
+    public int size;
+
+    private GameManager gameManager;
+    // The wire next to the source: turning it cuts off almost the whole board
+    private GameNode trunkTile;
+    // The bulb in the bottom-right corner: turning it changes a single cell
+    private GameNode leafTile;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        gameManager = BenchmarkBoards.comb(size);
+        trunkTile = gameManager.getGrid()[0][1];
+        leafTile = gameManager.getGrid()[size - 1][size - 1];
+    }
+
+    @Benchmark
+    public boolean updatePowerFlow() {
+        return gameManager.updatePowerFlow();
+    }
+
+    // One click: the tile turns by 90 degrees and power is updated incrementally.
+    // Four calls bring the tile back, so the board cycles through the same states.
+    @Benchmark
+    public int rotateTrunkTile() {
+        trunkTile.rotate();
+        return gameManager.updatePowerFlowAfterRotation(trunkTile).getChangeCount();
+    }
+
+    @Benchmark
+    public int rotateLeafTile() {
+        leafTile.rotate();
+        return gameManager.updatePowerFlowAfterRotation(leafTile).getChangeCount();
+    }
+
+    @Benchmark
+    public boolean isGameWon() {
+        return gameManager.isGameWon();
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * SolverBenchmark.java
+ *
+ * Authors: Zhdanovich Iaroslav (xzhdan00)
+ *          Malytskyi Denys     (xmalytd00)
+ *
+ * Description: JMH benchmark of the automatic solver of the "lightbulb" project on
+ * generated 100x100 boards. Every measurement is a single solve of the same shuffled
+ * board from its shuffled orientations. The seeds are fixed and include the slowest
+ * ones found so far (SPANNING_TREE 7 and 11), so the tail of the search stays
+ * visible: most boards are solved in tens to hundreds of milliseconds, the slowest
+ * need a few thousand decisions and one to three seconds.
+ * Run with: mvn -Pbenchmark compile exec:exec -Djmh.include=SolverBenchmark
+ */
+
+
+package ija2025;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xss512k")
+public class SolverBenchmark {
+
+    // ROWSxCOLS
+    @Param({"100x100"})
+    public String shape;
+
+    // GENERATOR:SEED
+    @Param({"SPANNING_TREE:0", "SPANNING_TREE:1", "SPANNING_TREE:2", "SPANNING_TREE:3",
+            "SPANNING_TREE:4", "SPANNING_TREE:5", "SPANNING_TREE:6", "SPANNING_TREE:7",
+            "SPANNING_TREE:11", "SPANNING_TREE:12",
+            "PATH_ROUTING:0", "PATH_ROUTING:1", "PATH_ROUTING:2", "PATH_ROUTING:3"})
+    public String board;
+
+    private GameManager gameManager;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        int separator = shape.indexOf('x');
+        int rows = Integer.parseInt(shape.substring(0, separator));
+        int cols = Integer.parseInt(shape.substring(separator + 1));
+        separator = board.indexOf(':');
+        long seed = Long.parseLong(board.substring(separator + 1));
+
+        gameManager = new GameManager(GameManager.Difficulty.HARD, rows, cols, seed);
+        gameManager.setGeneratorType(GameManager.GeneratorType.valueOf(board.substring(0, separator)));
+        gameManager.generateGameBoard();
+    }
+
+    @Benchmark
+    public boolean solve() {
+        return new BoardSolver(gameManager.getBoardState()).solve(gameManager);
+    }
+}
@@ -0,0 +1,259 @@
+/*
+ * BatchGenerator.java
+ *
+ * Authors: Zhdanovich Iaroslav (xzhdan00)
+ *          Malytskyi Denys     (xmalytd00)
+ *
+ * Description: Headless entry point of the "lightbulb" project that pre-builds puzzle
+ * sets offline. Generates boards for a range of seeds in parallel, without JavaFX,
+ * and streams them to a file, one JSON object per line. Reports boards per second,
+ * the time spent generating, encoding and writing boards, and the generation
+ * statistics summed over all boards.
+ *
+ * Usage: java -cp <classpath> ija2025.BatchGenerator
+ *            (--difficulty EASY|MEDIUM|HARD | --size N|RxC) [--generator PATH_ROUTING|SPANNING_TREE]
+ *            [--count N] [--seed FIRST] [--threads N] [--output FILE]
+ *
+ * Every line holds the seed, the board size, the generator and the cells in row-major
+ * order, three hex digits per cell: tile kind (BoardState constants), shuffled
+ * connection mask and the number of clockwise quarter turns back to the solution.
+ */
+
+
+package ija2025;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class BatchGenerator {
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+    // Boards a worker encodes before writing them out in one block
+    private static final int WRITE_BATCH = 64;
+
+    private GameManager.Difficulty difficulty = GameManager.Difficulty.HARD;
+    private int rows = 0; // 0 - size given by the difficulty
+    private int cols = 0;
+    private GameManager.GeneratorType generator = null; // null - default of the difficulty
+    private long count = 1000;
+    private long firstSeed = 0;
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private String output = "boards.jsonl";
+
+    // Shared progress of the workers
+    private final AtomicLong nextSeed = new AtomicLong();
+    private final AtomicLong generateNanos = new AtomicLong();
+    private final AtomicLong encodeNanos = new AtomicLong();
+    private final AtomicLong writeNanos = new AtomicLong();
+    private final GenerationStats generationStats = new GenerationStats();
+
+    public static void main(String[] args) {
+        BatchGenerator batch = new BatchGenerator();
+        try {
+            batch.parseArguments(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            printUsage();
+            System.exit(1);
+        }
+
+        try {
+            batch.run();
+        } catch (IOException | InterruptedException e) {
+            System.err.println("Error generating boards: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    private static void printUsage() {
+        System.err.println("Usage: BatchGenerator (--difficulty EASY|MEDIUM|HARD | --size N|RxC)"
+                + " [--generator PATH_ROUTING|SPANNING_TREE] [--count N] [--seed FIRST]"
+                + " [--threads N] [--output FILE]");
+    }
+
+    private void parseArguments(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            String option = args[i];
+            if (i + 1 >= args.length) {
+                throw new IllegalArgumentException("Missing value for " + option);
+            }
+            String value = args[++i];
+            try {
+                switch (option) {
+                    case "--difficulty":
+                        difficulty = GameManager.Difficulty.valueOf(value.toUpperCase());
+                        break;
+                    case "--size":
+                        // Either N for a square board or ROWSxCOLS
+                        int separator = value.toLowerCase().indexOf('x');
+                        rows = Integer.parseInt(separator < 0 ? value : value.substring(0, separator));
+                        cols = separator < 0 ? rows : Integer.parseInt(value.substring(separator + 1));
+                        break;
+                    case "--generator":
+                        generator = GameManager.GeneratorType.valueOf(value.toUpperCase());
+                        break;
+                    case "--count":
+                        count = Long.parseLong(value);
+                        break;
+                    case "--seed":
+                        firstSeed = Long.parseLong(value);
+                        break;
+                    case "--threads":
+                        threads = Integer.parseInt(value);
+                        break;
+                    case "--output":
+                        output = value;
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown option " + option);
+                }
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid value for " + option + ": " + value);
+            }
+        }
+        if (rows < 0 || cols < 0 || (rows > 0 && rows * cols < 2) || count < 0 || threads < 1) {
+            throw new IllegalArgumentException("Board must have at least 2 cells, count must be non-negative and threads positive");
+        }
+    }
+
+    private void run() throws IOException, InterruptedException {
+        nextSeed.set(firstSeed);
+        long start = System.nanoTime();
+
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(
+                Files.newOutputStream(Paths.get(output)), StandardCharsets.UTF_8))) {
+            List<Thread> workers = new ArrayList<>();
+            List<Exception> failures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                Thread worker = new Thread(() -> {
+                    try {
+                        generateBoards(writer);
+                    } catch (Exception e) {
+                        synchronized (failures) {
+                            failures.add(e);
+                        }
+                    }
+                }, "batch-generator-" + i);
+                workers.add(worker);
+                worker.start();
+            }
+            for (Thread worker : workers) {
+                worker.join();
+            }
+            if (!failures.isEmpty()) {
+                throw new IOException(failures.get(0).getMessage(), failures.get(0));
+            }
+        }
+
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("Generated %d boards in %.2f s (%.1f boards/s) on %d threads -> %s%n",
+                count, seconds, count / seconds, threads, output);
+        printPhase("generate", generateNanos.get());
+        printPhase("encode", encodeNanos.get());
+        printPhase("write", writeNanos.get());
+
+        System.out.println("Generation phases:");
+        for (GenerationStats.Phase phase : GenerationStats.Phase.values()) {
+            if (generationStats.getPhaseNanos(phase) > 0) {
+                printPhase(phase.toString().toLowerCase(), generationStats.getPhaseNanos(phase));
+            }
+        }
+        System.out.println("Generation counters (per board):");
+        printCounter("placement attempts", generationStats.getPlacementAttempts());
+        printCounter("route searches", generationStats.getRouteSearches());
+        printCounter("route cells visited", generationStats.getRouteCellsVisited());
+        printCounter("route failures", generationStats.getRouteFailures());
+        printCounter("wire repair passes", generationStats.getWireRepairIterations());
+        printCounter("wires replaced", generationStats.getWiresReplaced());
+        printCounter("bulb repairs", generationStats.getBulbRepairs());
+        printCounter("bulbs replaced", generationStats.getBulbsReplaced());
+    }
+
+    // Phase time summed over all threads, and per board
+    private void printPhase(String phase, long nanos) {
+        System.out.printf("  %-13s %10.1f ms total %10.1f us/board%n",
+                phase, nanos / 1e6, count == 0 ? 0 : nanos / 1e3 / count);
+    }
+
+    private void printCounter(String name, long total) {
+        System.out.printf("  %-19s %10d total %10.2f /board%n",
+                name, total, count == 0 ? 0 : (double) total / count);
+    }
+
+    // Worker loop: takes the next seed until the range is exhausted
+    private void generateBoards(Writer writer) throws IOException {
+        StringBuilder block = new StringBuilder();
+        GenerationStats workerStats = new GenerationStats();
+        int blockBoards = 0;
+        long lastSeed = firstSeed + count;
+
+        while (true) {
+            long seed = nextSeed.getAndIncrement();
+            if (seed >= lastSeed) {
+                break;
+            }
+
+            long phaseStart = System.nanoTime();
+            GameManager gameManager = rows > 0
+                    ? new GameManager(difficulty, rows, cols, seed)
+                    : new GameManager(difficulty, seed);
+            if (generator != null) {
+                gameManager.setGeneratorType(generator);
+            } else if (rows > 0) {
+                // Path routing is meant for the small boards of the difficulties
+                gameManager.setGeneratorType(GameManager.GeneratorType.SPANNING_TREE);
+            }
+            gameManager.generateGameBoard();
+            long generated = System.nanoTime();
+            generateNanos.addAndGet(generated - phaseStart);
+            workerStats.add(gameManager.getGenerationStats());
+
+            encode(gameManager, block);
+            blockBoards++;
+            encodeNanos.addAndGet(System.nanoTime() - generated);
+
+            if (blockBoards == WRITE_BATCH) {
+                write(writer, block);
+                blockBoards = 0;
+            }
+        }
+        write(writer, block);
+        synchronized (generationStats) {
+            generationStats.add(workerStats);
+        }
+    }
+
+    private void write(Writer writer, StringBuilder block) throws IOException {
+        if (block.length() == 0) {
+            return;
+        }
+        long writeStart = System.nanoTime();
+        synchronized (writer) {
+            writer.append(block);
+        }
+        block.setLength(0);
+        writeNanos.addAndGet(System.nanoTime() - writeStart);
+    }
+
+    private static void encode(GameManager gameManager, StringBuilder out) {
+        BoardState board = gameManager.getBoardState();
+        out.append("{\"seed\":").append(gameManager.getSeed())
+                .append(",\"rows\":").append(board.getRows())
+                .append(",\"cols\":").append(board.getCols())
+                .append(",\"generator\":\"").append(gameManager.getGeneratorType())
+                .append("\",\"cells\":\"");
+        for (int index = 0; index < board.size(); index++) {
+            out.append(HEX[board.getKind(index)])
+                    .append(HEX[board.getMask(index)])
+                    .append(HEX[gameManager.getRotationsToOriginal(board.row(index), board.col(index))]);
+        }
+        out.append("\"}\n");
+    }
+}
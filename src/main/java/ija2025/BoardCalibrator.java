@@ -0,0 +1,198 @@
+/*
+ * BoardCalibrator.java
+ *
+ * Authors: Zhdanovich Iaroslav (xzhdan00)
+ *          Malytskyi Denys     (xmalytd00)
+ *
+ * Description: Difficulty calibration of generated boards in the "lightbulb" project.
+ * A generated board is solved by the automatic solver and its effort (branching
+ * decisions plus backtracks) must fall into the band of the board's difficulty:
+ * easy boards are solved by deduction alone, hard boards need some search but not
+ * an unreasonable amount. Unsolvable boards are always rejected, and so are ambiguous
+ * boards with more than one solution unless that check is switched off. Candidates are
+ * generated on several virtual threads at once until one of them passes, so a
+ * calibrated board is ready about as fast as an uncalibrated one used to be. When no
+ * candidate passes, the best solved one seen is used and the fallback is reported.
+ */
+
+
+package ija2025;
+
+import ija2025.Diagnostics.Subsystem;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public final class BoardCalibrator {
+    // Candidates generated at once for one calibrated board
+    private static final int CANDIDATE_WORKERS = Math.max(2, Runtime.getRuntime().availableProcessors());
+    // After this many rejected candidates the best of them is taken
+    private static final int MAX_CANDIDATES = 500;
+    // Decisions the uniqueness check may take; a board it cannot settle is rejected
+    private static final int UNIQUENESS_DECISIONS = 1000;
+
+    // How close a candidate came to passing: solved within the band and unique,
+    // solved within the band but maybe not unique, solved outside the band, not solved
+    // within the decisions the band allows
+    private static final int ACCEPTED = 3;
+    private static final int IN_BAND = 2;
+    private static final int SOLVED = 1;
+    private static final int UNSOLVED = 0;
+
+    // Whether boards with more than one solution are rejected
+    private static volatile boolean uniqueSolutions = true;
+
+    // The candidate that came closest to passing so far, shared by the workers of one
+    // calibrated board
+    private static final class BestCandidate {
+        private GameManager candidate;
+        private int quality = UNSOLVED;
+
+        synchronized void offer(GameManager gameManager, int candidateQuality) {
+            if (candidate == null || candidateQuality > quality) {
+                candidate = gameManager;
+                quality = candidateQuality;
+            }
+        }
+
+        synchronized GameManager get() {
+            return candidate;
+        }
+
+        synchronized int getQuality() {
+            return quality;
+        }
+    }
+
+    private BoardCalibrator() {
+    }
+
+    public static void setUniqueSolutions(boolean uniqueSolutions) {
+        BoardCalibrator.uniqueSolutions = uniqueSolutions;
+    }
+
+    public static boolean isUniqueSolutions() {
+        return uniqueSolutions;
+    }
+
+    // Lowest accepted solver effort (decisions + backtracks) of the difficulty
+    static int minEffort(GameManager.Difficulty difficulty) {
+        switch (difficulty) {
+            case HARD:
+                return 2;
+            default:
+                return 0;
+        }
+    }
+
+    // Highest accepted solver effort of the difficulty
+    static int maxEffort(GameManager.Difficulty difficulty) {
+        switch (difficulty) {
+            case EASY:
+                return 0;
+            case MEDIUM:
+                return 4;
+            default:
+                return 40;
+        }
+    }
+
+    // Solves the generated board, records the effort in its generation statistics and
+    // checks that the effort falls into the band of the board's difficulty and (when
+    // required) that the board has no other solution than the generated one
+    public static boolean accepts(GameManager gameManager) {
+        return calibrate(gameManager) == ACCEPTED;
+    }
+
+    // Calibrates the generated board like accepts() and tells how close it came to passing
+    private static int calibrate(GameManager gameManager) {
+        long start = System.nanoTime();
+        GameManager.Difficulty difficulty = gameManager.getDifficulty();
+
+        BoardSolver solver = new BoardSolver(gameManager.getBoardState());
+        // Searching past the band is pointless, the board is rejected anyway
+        solver.setDecisionLimit(maxEffort(difficulty) + 1);
+        solver.setProbing(false);
+        boolean solved = solver.solve(gameManager);
+
+        GenerationStats stats = gameManager.getGenerationStats();
+        stats.solverEffort(solver.getForcedCount(), solver.getDecisionCount(), solver.getBacktrackCount());
+
+        int effort = solver.getDecisionCount() + solver.getBacktrackCount();
+        boolean inBand = solved && effort >= minEffort(difficulty) && effort <= maxEffort(difficulty);
+        boolean unique = !inBand || !uniqueSolutions || isUnique(solver, gameManager);
+        stats.endPhase(GenerationStats.Phase.CALIBRATION, start);
+
+        boolean accepted = inBand && unique;
+        Diagnostics.log(Subsystem.GENERATION, () -> "Calibration of seed " + gameManager.getSeed()
+                + ": solved=" + solved + " effort=" + effort + " unique=" + unique
+                + (accepted ? " accepted" : " rejected"));
+        if (accepted) {
+            return ACCEPTED;
+        }
+        if (inBand) {
+            return IN_BAND;
+        }
+        return solved ? SOLVED : UNSOLVED;
+    }
+
+    // Searches the board once more for a second solution. The effort is measured already,
+    // so probing may make this search as fast as it can be.
+    private static boolean isUnique(BoardSolver solver, GameManager gameManager) {
+        solver.setProbing(true);
+        solver.setDecisionLimit(UNIQUENESS_DECISIONS);
+        return solver.hasUniqueSolution(gameManager);
+    }
+
+    // Generates random boards of the difficulty on parallel workers of the executor
+    // and completes with the first one that passes calibration. When none of the first
+    // MAX_CANDIDATES passes, completes with the one that came closest if it was solved
+    // at all, and fails otherwise; either way the fallback is reported.
+    public static CompletableFuture<GameManager> generate(GameManager.Difficulty difficulty, Executor executor) {
+        CompletableFuture<GameManager> result = new CompletableFuture<>();
+        AtomicInteger candidates = new AtomicInteger();
+        BestCandidate best = new BestCandidate();
+        for (int i = 0; i < CANDIDATE_WORKERS; i++) {
+            executor.execute(() -> {
+                try {
+                    while (!result.isDone()) {
+                        GameManager candidate = new GameManager(difficulty);
+                        candidate.generateGameBoard();
+                        int quality = calibrate(candidate);
+                        if (quality == ACCEPTED) {
+                            result.complete(candidate);
+                            break;
+                        }
+                        best.offer(candidate, quality);
+                        if (candidates.incrementAndGet() == MAX_CANDIDATES) {
+                            completeWithBest(result, best, difficulty);
+                        }
+                    }
+                } catch (RuntimeException e) {
+                    result.completeExceptionally(e);
+                }
+            });
+        }
+        return result;
+    }
+
+    private static void completeWithBest(CompletableFuture<GameManager> result, BestCandidate best,
+                                         GameManager.Difficulty difficulty) {
+        if (result.isDone()) {
+            return;
+        }
+        GameManager candidate = best.get();
+        if (candidate == null || best.getQuality() == UNSOLVED) {
+            String message = "No " + difficulty + " board out of " + MAX_CANDIDATES
+                    + " candidates was solved within its difficulty band";
+            Diagnostics.log(Subsystem.GENERATION, "Calibration failed: " + message);
+            result.completeExceptionally(new IllegalStateException(message));
+            return;
+        }
+        Diagnostics.log(Subsystem.GENERATION, () -> "Calibration gave up after " + MAX_CANDIDATES + " " + difficulty
+                + " candidates, using seed " + candidate.getSeed()
+                + (best.getQuality() == IN_BAND ? " (in band, solution not proven unique)" : " (solved outside the band)"));
+        result.complete(candidate);
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * BoardPool.java
+ *
+ * Authors: Zhdanovich Iaroslav (xzhdan00)
+ *          Malytskyi Denys     (xmalytd00)
+ *
+ * Description: Pool of ready-made game boards for the "lightbulb" project. For every
+ * difficulty a few boards are generated on background virtual threads at startup and
+ * a new one is generated whenever a board is taken, so starting a game only hands
+ * over a prepared board. Boards are never generated on the JavaFX thread: if the
+ * pool of a difficulty is empty, the caller gets a future completed by a background
+ * generation. Random boards are calibrated (see BoardCalibrator), so every pooled
+ * board matches its difficulty; boards of a chosen seed are not calibrated, but a
+ * seed whose generated solution does not win the game is rejected.
+ */
+
+
+package ija2025;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+public final class BoardPool {
+    // Number of boards kept ready for every difficulty
+    private static final int POOL_SIZE = 3;
+
+    private static final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private static final Map<GameManager.Difficulty, ConcurrentLinkedQueue<GameManager>> pools =
+            new EnumMap<>(GameManager.Difficulty.class);
+
+    static {
+        for (GameManager.Difficulty difficulty : GameManager.Difficulty.values()) {
+            pools.put(difficulty, new ConcurrentLinkedQueue<>());
+        }
+    }
+
+    private BoardPool() {
+    }
+
+    // Starts filling the pools of all difficulties in the background
+    public static void start() {
+        for (GameManager.Difficulty difficulty : GameManager.Difficulty.values()) {
+            for (int i = pools.get(difficulty).size(); i < POOL_SIZE; i++) {
+                refill(difficulty);
+            }
+        }
+    }
+
+    // Hands over a prepared board of the given difficulty and orders a replacement
+    public static CompletableFuture<GameManager> take(GameManager.Difficulty difficulty) {
+        GameManager gameManager = pools.get(difficulty).poll();
+        refill(difficulty);
+        if (gameManager != null) {
+            return CompletableFuture.completedFuture(gameManager);
+        }
+        return generate(difficulty);
+    }
+
+    // Generates a calibrated board of the given difficulty in the background, outside the pool
+    public static CompletableFuture<GameManager> generate(GameManager.Difficulty difficulty) {
+        return BoardCalibrator.generate(difficulty, executor);
+    }
+
+    // Generates the board of the given seed in the background (seeded boards are not pooled).
+    // Fails with IllegalStateException when the generated solution does not win the game
+    public static CompletableFuture<GameManager> generate(GameManager.Difficulty difficulty, long seed) {
+        return CompletableFuture.supplyAsync(() -> {
+            GameManager gameManager = generated(new GameManager(difficulty, seed));
+            if (!gameManager.isSolutionWon()) {
+                throw new IllegalStateException("Seed " + seed + " does not give a solvable "
+                        + difficulty + " board, try another seed");
+            }
+            return gameManager;
+        }, executor);
+    }
+
+    // Number of boards of the difficulty that are ready to be taken
+    public static int getReadyCount(GameManager.Difficulty difficulty) {
+        return pools.get(difficulty).size();
+    }
+
+    private static void refill(GameManager.Difficulty difficulty) {
+        generate(difficulty).thenAccept(pools.get(difficulty)::add);
+    }
+
+    private static GameManager generated(GameManager gameManager) {
+        gameManager.generateGameBoard();
+        return gameManager;
+    }
+}
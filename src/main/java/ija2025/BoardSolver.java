@@ -0,0 +1,1168 @@
+/*
+ * BoardSolver.java
+ *
+ * Authors: Zhdanovich Iaroslav (xzhdan00)
+ *          Malytskyi Denys     (xmalytd00)
+ *
+ * Description: Automatic solver of the "lightbulb" puzzle working on the packed board.
+ * Every tile keeps a domain of its distinct orientations (quarter turns of its current
+ * connection mask). Propagation removes orientations that point out of the board or
+ * disagree with what the neighbour can offer on the shared edge: a connection must be
+ * answered by the neighbour (no dangling ends) and a side the neighbour always
+ * connects to must be connected. On top of that the solver checks the global rules:
+ * a group of tiles joined by settled connections that can no longer grow must hold
+ * exactly one source colour, and every tile must still be reachable from a source.
+ * After every step it also makes the connections some tiles depend on (bridges of the
+ * graph of possible connections) and probes the orientations of the undecided tiles
+ * around the changes.
+ * When deduction stalls, the solver branches on an undecided tile, staying in the region
+ * of the last decision until it is finished and preferring tiles with few orientations
+ * left that failed before. It backtracks on contradictions and restarts after runs of
+ * backtracks whose lengths follow the Luby sequence (scaled with the size of the
+ * board); runs after the first one try the orientations of a decision in random order
+ * (from a fixed seed, so a solve is repeatable). Short, varied runs keep a bad early
+ * decision from being dragged through the whole search. The search keeps its own
+ * stack, so large boards do not use the thread stack.
+ * A complete assignment is accepted only if every tile is powered and no two source
+ * colours meet. The solver starts from whatever orientations the board has, so it
+ * finds any valid solution, not only the generated one. Solutions can also be counted
+ * up to a limit; the search then goes on after a solution as after a contradiction,
+ * which checks that a board has exactly one solution. The tiles fixed by deduction
+ * alone are reported, and the effort of the search (forced tiles, decisions,
+ * backtracks) is recorded, so it can be used to measure how hard a board is.
+ * A solve can start from restricted orientations, go on after it was stopped by the
+ * decision limit and be cancelled from another thread, so subtrees of the search can
+ * be solved in parallel (ParallelBoardSolver).
+ */
+
+
+package ija2025;
+
+import java.util.Arrays;
+import java.util.Random;
+
+public class BoardSolver {
+    // Backtracks of the shortest run of the search between restarts, at least FIRST_RESTART
+    // and one per TILES_PER_BACKTRACK tiles, as a run on a large board needs more decisions
+    // to get anywhere; the runs are this many times the Luby sequence 1, 1, 2, 1, 1, 2, 4,
+    // 1, ... long
+    private static final int FIRST_RESTART = 16;
+    private static final int TILES_PER_BACKTRACK = 64;
+    // Seed of the orientation order of the runs after a restart
+    private static final long ORDER_SEED = 1;
+
+    private final BoardState board;
+    private final int size;
+    // Neighbour of every cell in every direction (index * 4 + dir), -1 outside the board
+    private final int[] neighbours;
+
+    // Connection mask of every tile in its current orientation and colour bits of sources
+    private final int[] baseMask;
+    private final int[] sourceColor;
+    private int tileCount = 0;
+    private int sourceCount = 0;
+    // Remaining orientations of every tile: bit r = r clockwise quarter turns
+    private final int[] domain;
+    // Union and intersection of the masks of the remaining orientations
+    private final int[] canMask;
+    private final int[] mustMask;
+
+    // Propagation work list (circular, one slot larger than the board)
+    private final int[] queue;
+    private final boolean[] queued;
+    private int queueHead;
+    private int queueTail;
+
+    // Undo trail: cell and its domain before the change
+    private int[] trailCell;
+    private int[] trailDomain;
+    private int trailSize = 0;
+
+    // Open decisions of the search (depth of them): branched tile, orientations not tried
+    // yet, trail size before the decision and whether one of its orientations is being tried
+    private int depth = 0;
+    private final int[] branchCell;
+    private final int[] branchOptions;
+    private final int[] branchMark;
+    private final int[] branchAnchorMark;
+    private final boolean[] branchTried;
+    // Trail and anchor sizes of the deduced root, backtracks since the last restart
+    // and backtracks allowed before the next one
+    private int rootMark = 0;
+    private int rootAnchorMark = 0;
+    private int runBacktracks = 0;
+    private int restartLimit = FIRST_RESTART;
+    private int restartUnit = FIRST_RESTART;
+    // Orientation order of the decisions after a restart
+    private final Random order = new Random();
+    // Whether the search stopped by the decision limit can go on (see resume) and
+    // whether it stopped while backtracking, before the next orientation of a decision
+    private boolean stoppedByLimit = false;
+    private boolean backtracking = false;
+    // Failures of every tile as a decision
+    private final int[] weight;
+    // Region walks of the branching heuristic stamp the tiles they visit with regionEpoch
+    private final int[] regionStamp;
+    private int regionEpoch = 0;
+    private final boolean[] enclosed;
+
+    // Tiles waiting for probing
+    private boolean probing = true;
+    private final int[] probeList;
+    private final boolean[] probeQueued;
+    private int probeSize = 0;
+
+    // Group checks stamp the tiles they visit; stamps from roundStart on belong to the
+    // current round of checks, the current group has the stamp epoch
+    private final int[] seen;
+    private int epoch = 0;
+    private int roundStart = 1;
+
+    // Tiles joined to a source by settled connections, in the order they were found in,
+    // so they can be released on backtracking
+    private final boolean[] anchored;
+    private final int[] anchorTrail;
+    private int anchorSize = 0;
+
+    // Scratch buffers of the bridge search: discovery time, lowest reachable discovery
+    // time, tree parent with the direction from it and next direction to explore of
+    // every tile, and found bridges (stored as the tile below the bridge)
+    private final int[] disc;
+    private final int[] low;
+    private final int[] parent;
+    private final byte[] parentDir;
+    private final byte[] nextDir;
+    private final int[] bridgeCell;
+
+    // Scratch buffers of the breadth-first walks
+    private final int[] component;
+    private final boolean[] visited;
+
+    // Effort statistics of the last solve
+    private int forcedCount = 0;
+    private int decisionCount = 0;
+    private int backtrackCount = 0;
+    private long probeCount = 0;
+    private int restartCount = 0;
+    private int maxDepth = 0;
+    private boolean solved = false;
+    private final int[] solution;
+    private final int[] forcedTurns;
+
+    // Limit of decisions after which the search gives up
+    private int decisionLimit = Integer.MAX_VALUE;
+    // Solutions after which the search stops, solutions found and whether the search
+    // tree was explored completely
+    private int solutionLimit = 1;
+    private int solutionCount = 0;
+    private boolean exhausted = false;
+    // Set when the solving thread was interrupted or the solve was cancelled from
+    // another thread
+    private boolean cancelled = false;
+    private volatile boolean cancelRequested = false;
+    // Orientations the tiles start the solve with (null for all distinct ones), so a
+    // subtree of the search can be handed to another solver (see ParallelBoardSolver)
+    private int[] startDomains;
+
+    public BoardSolver(BoardState board) {
+        this.board = board;
+        this.size = board.size();
+        this.neighbours = new int[size * 4];
+        for (int i = 0; i < size; i++) {
+            for (int dir = 0; dir < 4; dir++) {
+                neighbours[i * 4 + dir] = board.neighbour(i, dir);
+            }
+        }
+        this.baseMask = new int[size];
+        this.sourceColor = new int[size];
+        this.domain = new int[size];
+        this.canMask = new int[size];
+        this.mustMask = new int[size];
+        this.queue = new int[size + 1];
+        this.queued = new boolean[size];
+        this.trailCell = new int[size];
+        this.trailDomain = new int[size];
+        this.branchCell = new int[size];
+        this.branchOptions = new int[size];
+        this.branchMark = new int[size];
+        this.branchAnchorMark = new int[size];
+        this.branchTried = new boolean[size];
+        this.weight = new int[size];
+        this.regionStamp = new int[size];
+        this.enclosed = new boolean[size];
+        this.probeList = new int[size];
+        this.probeQueued = new boolean[size];
+        this.seen = new int[size];
+        this.anchored = new boolean[size];
+        this.anchorTrail = new int[size];
+        this.disc = new int[size];
+        this.low = new int[size];
+        this.parent = new int[size];
+        this.parentDir = new byte[size];
+        this.nextDir = new byte[size];
+        this.bridgeCell = new int[size];
+        this.component = new int[size];
+        this.visited = new boolean[size];
+        this.solution = new int[size];
+        this.forcedTurns = new int[size];
+    }
+
+    // Maximum number of branching decisions; the solve fails when it is exceeded
+    public void setDecisionLimit(int decisionLimit) {
+        this.decisionLimit = decisionLimit;
+    }
+
+    // Probing makes the solver much faster on large boards, but it hides the search
+    // effort that a person solving the board step by step would need
+    public void setProbing(boolean probing) {
+        this.probing = probing;
+    }
+
+    // Solves the board from its current orientations. The colours of the sources are
+    // given by the game manager. Returns true when a solution was found.
+    public boolean solve(GameManager gameManager) {
+        forcedCount = 0;
+        decisionCount = 0;
+        backtrackCount = 0;
+        probeCount = 0;
+        restartCount = 0;
+        maxDepth = 0;
+        cancelled = false;
+        trailSize = 0;
+        solved = false;
+        Arrays.fill(weight, 0);
+
+        for (PowerNode powerNode : gameManager.getPowerNodes()) {
+            sourceColor[powerNode.getIndex()] = 1 << powerNode.getColor();
+        }
+        tileCount = 0;
+        sourceCount = 0;
+        for (int i = 0; i < size; i++) {
+            int kind = board.getKind(i);
+            if (kind != BoardState.POWER) {
+                sourceColor[i] = 0;
+            } else {
+                sourceCount++;
+            }
+            if (kind != BoardState.EMPTY) {
+                tileCount++;
+            }
+            baseMask[i] = board.getMask(i);
+            domain[i] = distinctTurns(baseMask[i]);
+            if (startDomains != null) {
+                domain[i] &= startDomains[i];
+            }
+            updateMasks(i);
+        }
+
+        // Every tile is checked at least once against the border and its neighbours
+        queueHead = 0;
+        queueTail = 0;
+        for (int i = 0; i < size; i++) {
+            queued[i] = false;
+            enqueue(i);
+        }
+        boolean consistent = propagate() && checkGroups(0, true) && deduceRoot();
+        // Tiles fixed before any decision are forced by the rules alone
+        for (int i = 0; i < size; i++) {
+            forcedTurns[i] = -1;
+            if (consistent && Integer.bitCount(domain[i]) == 1 && domain[i] != distinctTurns(baseMask[i])) {
+                forcedTurns[i] = Integer.numberOfTrailingZeros(domain[i]);
+                forcedCount++;
+            }
+        }
+
+        solutionCount = 0;
+        exhausted = !consistent && !cancelled;
+        stoppedByLimit = false;
+        if (consistent) {
+            depth = 0;
+            rootMark = trailSize;
+            rootAnchorMark = anchorSize;
+            runBacktracks = 0;
+            restartUnit = Math.max(FIRST_RESTART, tileCount / TILES_PER_BACKTRACK);
+            restartLimit = restartUnit;
+            order.setSeed(ORDER_SEED);
+            backtracking = false;
+            search();
+        }
+        solved = solutionCount > 0;
+        return solved;
+    }
+
+    // Goes on with the last solve after it was stopped by the decision limit, up to the
+    // new limit; the search continues exactly where it stopped. Returns true when a
+    // solution was found.
+    boolean resume(int decisionLimit) {
+        this.decisionLimit = decisionLimit;
+        if (stoppedByLimit && !cancelled) {
+            stoppedByLimit = false;
+            search();
+            solved = solutionCount > 0;
+        }
+        return solved;
+    }
+
+    // Depth-first search until the solution limit is reached, the decision limit is
+    // exceeded or the whole search tree is exhausted
+    private void search() {
+        while (true) {
+            int cell = -1;
+            // A search resumed while backtracking goes on with the next orientation
+            boolean consistent = !backtracking;
+            if (consistent) {
+                // The root is deduced already, a deeper state only around the last decision
+                consistent = depth == 0 || deduce(branchMark[depth - 1]);
+                if (cancelled) {
+                    return;
+                }
+                if (!consistent) {
+                    weight[branchCell[depth - 1]]++;
+                }
+                cell = consistent ? pickBranchCell(depth > 0 ? branchCell[depth - 1] : -1) : -1;
+            }
+            backtracking = false;
+            if (consistent && cell < 0 && isPowered()) {
+                if (solutionCount++ == 0) {
+                    for (int i = 0; i < size; i++) {
+                        solution[i] = Integer.numberOfTrailingZeros(domain[i]);
+                    }
+                }
+                if (solutionCount >= solutionLimit) {
+                    return;
+                }
+                // Looks for another solution as if this one failed
+            }
+            if (cell >= 0) {
+                if (isInterrupted()) {
+                    return;
+                }
+                if (decisionCount >= decisionLimit) {
+                    stoppedByLimit = true;
+                    return;
+                }
+                decisionCount++;
+                branchCell[depth] = cell;
+                branchOptions[depth] = domain[cell];
+                branchMark[depth] = trailSize;
+                branchAnchorMark[depth] = anchorSize;
+                branchTried[depth] = false;
+                depth++;
+                maxDepth = Math.max(maxDepth, depth);
+            }
+
+            // Tries the next orientation of the deepest open decision; a decision
+            // without orientations left is closed and its parent's choice fails
+            boolean advanced = false;
+            while (!advanced && depth > 0) {
+                int level = depth - 1;
+                if (branchTried[level]) {
+                    undo(branchMark[level]);
+                    releaseAnchors(branchAnchorMark[level]);
+                    backtrackCount++;
+                    // A restart after a solution could only find the same solution again.
+                    // The backtrack is counted before the decision limit is checked, so
+                    // a search stopped here and resumed restarts exactly when an
+                    // uninterrupted one would
+                    if (solutionCount == 0 && ++runBacktracks > restartLimit) {
+                        // Starts over from the root; the weights now point at the tiles
+                        // that keep failing, so they are decided first
+                        undo(rootMark);
+                        releaseAnchors(rootAnchorMark);
+                        depth = 0;
+                        runBacktracks = 0;
+                        restartCount++;
+                        restartLimit = restartUnit * luby(restartCount + 1);
+                        advanced = true;
+                        continue;
+                    }
+                    if (decisionCount >= decisionLimit) {
+                        // The tried orientation is undone, a resumed search tries the next
+                        branchTried[level] = false;
+                        backtracking = true;
+                        stoppedByLimit = true;
+                        return;
+                    }
+                }
+                int options = branchOptions[level];
+                if (options == 0) {
+                    depth--;
+                    continue;
+                }
+                int turn = restartCount == 0 ? Integer.lowestOneBit(options) : randomTurn(options);
+                branchOptions[level] = options & ~turn;
+                branchTried[level] = true;
+
+                setDomain(branchCell[level], turn);
+                queueHead = 0;
+                queueTail = 0;
+                enqueueNeighbours(branchCell[level]);
+                advanced = propagate() && checkGroups(branchMark[level], false);
+                if (!advanced) {
+                    weight[branchCell[level]]++;
+                }
+            }
+            if (!advanced) {
+                exhausted = true;
+                return;
+            }
+        }
+    }
+
+    // One of the orientations in the mask, chosen at random
+    private int randomTurn(int options) {
+        for (int skip = order.nextInt(Integer.bitCount(options)); skip > 0; skip--) {
+            options &= options - 1;
+        }
+        return Integer.lowestOneBit(options);
+    }
+
+    // The i-th element (from 1) of the Luby sequence: 1, 1, 2, 1, 1, 2, 4, 1, 1, 2, ...
+    static int luby(int i) {
+        while (true) {
+            // 2^(k-1) <= i + 1 < 2^k
+            int k = Integer.SIZE - Integer.numberOfLeadingZeros(i + 1);
+            if (i + 1 == 1 << (k - 1)) {
+                return 1 << (k - 2);
+            }
+            i -= (1 << (k - 1)) - 1;
+        }
+    }
+
+    // Picks the next tile to decide. The tiles not settled to a source split into regions
+    // fenced off by settled tiles, and a decision in one region cannot affect another, so
+    // the search stays in the region of the last decision until it is finished; a wrong
+    // choice is then found before decisions elsewhere are stacked on top of it.
+    private int pickBranchCell(int last) {
+        int best = last >= 0 ? pickInRegion(last) : -1;
+        return best >= 0 ? best : pickAnywhere();
+    }
+
+    // Picks an undecided tile in or next to the region around the last decided tile
+    private int pickInRegion(int last) {
+        regionEpoch++;
+        int tail = 0;
+        if (!anchored[last]) {
+            regionStamp[last] = regionEpoch;
+            component[tail++] = last;
+        }
+        for (int dir = 0; dir < 4; dir++) {
+            int next = neighbours[last * 4 + dir];
+            if (inRegion(next)) {
+                regionStamp[next] = regionEpoch;
+                component[tail++] = next;
+            }
+        }
+        for (int head = 0; head < tail; head++) {
+            int cell = component[head];
+            for (int dir = 0; dir < 4; dir++) {
+                int next = neighbours[cell * 4 + dir];
+                if (inRegion(next)) {
+                    regionStamp[next] = regionEpoch;
+                    component[tail++] = next;
+                }
+            }
+        }
+
+        int best = -1;
+        int bestRank = 0;
+        for (int t = 0; t < tail; t++) {
+            int cell = component[t];
+            for (int dir = -1; dir < 4; dir++) {
+                int candidate = dir < 0 ? cell : neighbours[cell * 4 + dir];
+                if (candidate < 0 || Integer.bitCount(domain[candidate]) < 2) {
+                    continue;
+                }
+                int rank = isBorder(candidate) ? 1 : 0;
+                if (prefer(candidate, rank, best, bestRank)) {
+                    best = candidate;
+                    bestRank = rank;
+                }
+            }
+        }
+        return best;
+    }
+
+    private boolean inRegion(int cell) {
+        return cell >= 0 && !anchored[cell] && board.getKind(cell) != BoardState.EMPTY
+                && regionStamp[cell] != regionEpoch;
+    }
+
+    // Picks a tile on the border of the area settled to a source, so the search grows
+    // that area outwards and a tile it cuts off is noticed at once. Groups of undecided
+    // tiles enclosed by settled tiles go last: any orientations that fit them do.
+    private int pickAnywhere() {
+        regionEpoch++;
+        int best = -1;
+        int bestRank = 0;
+        for (int i = 0; i < size; i++) {
+            if (Integer.bitCount(domain[i]) < 2) {
+                continue;
+            }
+            if (regionStamp[i] != regionEpoch) {
+                markEnclosed(i);
+            }
+            int rank = (enclosed[i] ? 0 : 2) + (isBorder(i) ? 1 : 0);
+            if (prefer(i, rank, best, bestRank)) {
+                best = i;
+                bestRank = rank;
+            }
+        }
+        return best;
+    }
+
+    // Whether the tile is settled to a source or next to a settled tile
+    private boolean isBorder(int cell) {
+        if (anchored[cell]) {
+            return true;
+        }
+        for (int dir = 0; dir < 4; dir++) {
+            int next = neighbours[cell * 4 + dir];
+            if (next >= 0 && anchored[next]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Whether the tile of the rank is a better decision than the best one so far: a higher
+    // rank first, then the fewest orientations left per failure (plus one), so tiles that
+    // keep failing are decided first and the search learns where the contradictions come from
+    private boolean prefer(int cell, int rank, int best, int bestRank) {
+        if (best < 0 || rank != bestRank) {
+            return best < 0 || rank > bestRank;
+        }
+        // count / (weight + 1) < bestCount / (bestWeight + 1)
+        long count = Integer.bitCount(domain[cell]);
+        long bestCount = Integer.bitCount(domain[best]);
+        return count * (weight[best] + 1) < bestCount * (weight[cell] + 1);
+    }
+
+    // Marks the group of undecided tiles around the tile as enclosed when every decided
+    // tile next to it is settled to a source
+    private void markEnclosed(int start) {
+        int tail = 0;
+        regionStamp[start] = regionEpoch;
+        component[tail++] = start;
+        boolean closed = true;
+        for (int head = 0; head < tail; head++) {
+            int cell = component[head];
+            for (int dir = 0; dir < 4; dir++) {
+                int next = neighbours[cell * 4 + dir];
+                if (next < 0 || regionStamp[next] == regionEpoch) {
+                    continue;
+                }
+                if (Integer.bitCount(domain[next]) > 1) {
+                    regionStamp[next] = regionEpoch;
+                    component[tail++] = next;
+                } else if (!anchored[next] && board.getKind(next) != BoardState.EMPTY) {
+                    closed = false;
+                }
+            }
+        }
+        for (int t = 0; t < tail; t++) {
+            enclosed[component[t]] = closed;
+        }
+    }
+
+    // Deduces everything possible before the first decision: probes every undecided tile
+    // (when enabled) and makes the connections some tiles depend on
+    private boolean deduceRoot() {
+        anchorSize = 0;
+        Arrays.fill(anchored, false);
+        for (int i = 0; i < size; i++) {
+            if (sourceColor[i] != 0 && !anchored[i]) {
+                anchorFrom(i);
+            }
+        }
+        if (probing) {
+            for (int i = 0; i < size; i++) {
+                addProbe(i);
+            }
+        }
+        return deduce(0);
+    }
+
+    // Deduces around the tiles changed since the trail mark: probes them (when enabled),
+    // anchors the groups newly settled to a source and makes the connections some tiles
+    // depend on, until nothing new is found
+    private boolean deduce(int mark) {
+        while (true) {
+            if (probing) {
+                addProbeArea(mark);
+                if (!probe()) {
+                    return false;
+                }
+            }
+            extendAnchors(mark);
+            mark = trailSize;
+            int made = forceBridges();
+            if (made <= 0) {
+                return made == 0;
+            }
+        }
+    }
+
+    // Tries every orientation of the tiles waiting for probing; an orientation whose
+    // propagation ends in a contradiction is removed and the tiles around the changes
+    // it causes are probed again. A probe only looks at local consequences, so only the
+    // surroundings of changed tiles can give a different answer than before.
+    private boolean probe() {
+        while (probeSize > 0) {
+            if (isInterrupted()) {
+                return false;
+            }
+            int cell = probeList[--probeSize];
+            probeQueued[cell] = false;
+            int options = domain[cell];
+            if (Integer.bitCount(options) < 2) {
+                continue;
+            }
+            int failed = 0;
+            while (options != 0) {
+                int turn = Integer.lowestOneBit(options);
+                options &= ~turn;
+                if (!tryDomain(cell, turn)) {
+                    failed |= turn;
+                }
+                probeCount++;
+            }
+            if (failed != 0) {
+                int mark = trailSize;
+                setDomain(cell, domain[cell] & ~failed);
+                queueHead = 0;
+                queueTail = 0;
+                enqueueNeighbours(cell);
+                if (domain[cell] == 0 || !propagate() || !checkGroups(mark, false)) {
+                    while (probeSize > 0) {
+                        probeQueued[probeList[--probeSize]] = false;
+                    }
+                    return false;
+                }
+                addProbeArea(mark);
+            }
+        }
+        return true;
+    }
+
+    // A solve running on an interrupted thread stops as soon as possible; its result is
+    // not wanted any more (see HintEngine)
+    private boolean isInterrupted() {
+        if (cancelRequested || Thread.currentThread().isInterrupted()) {
+            cancelled = true;
+        }
+        return cancelled;
+    }
+
+    // Propagates the orientations of the tile and takes the change back
+    private boolean tryDomain(int cell, int newDomain) {
+        int mark = trailSize;
+        setDomain(cell, newDomain);
+        queueHead = 0;
+        queueTail = 0;
+        enqueueNeighbours(cell);
+        boolean consistent = propagate() && checkGroups(mark, false);
+        undo(mark);
+        return consistent;
+    }
+
+    // Queues the tiles changed since the trail mark and their neighbours for probing
+    private void addProbeArea(int mark) {
+        for (int t = mark; t < trailSize; t++) {
+            int cell = trailCell[t];
+            addProbe(cell);
+            for (int dir = 0; dir < 4; dir++) {
+                int next = neighbours[cell * 4 + dir];
+                if (next >= 0) {
+                    addProbe(next);
+                }
+            }
+        }
+    }
+
+    private void addProbe(int cell) {
+        if (!probeQueued[cell] && Integer.bitCount(domain[cell]) > 1) {
+            probeQueued[cell] = true;
+            probeList[probeSize++] = cell;
+        }
+    }
+
+    // Finds the possible connections that some tiles depend on: the bridges of the graph
+    // of possible connections in which the tiles settled to a source are merged into one
+    // root, found by a depth-first search over the other tiles. A bridge leads to tiles
+    // without a source, so the connection must be made. Returns the number of bridges
+    // newly made, or -1 when a tile cannot be reached from any source at all or making
+    // the bridges leads to a contradiction.
+    private int forceBridges() {
+        Arrays.fill(disc, 0);
+        // The anchored tiles all share the discovery time 1 of the root
+        for (int t = 0; t < anchorSize; t++) {
+            disc[anchorTrail[t]] = 1;
+        }
+        int time = 1;
+        int reached = anchorSize;
+        int bridges = 0;
+        for (int t = 0; t < anchorSize; t++) {
+            int root = anchorTrail[t];
+            for (int rootDir = 0; rootDir < 4; rootDir++) {
+                if ((canMask[root] & (1 << rootDir)) == 0) {
+                    continue;
+                }
+                int child = neighbours[root * 4 + rootDir];
+                if (disc[child] != 0) {
+                    continue;
+                }
+                int top = 0;
+                component[top++] = child;
+                disc[child] = ++time;
+                low[child] = time;
+                parent[child] = root;
+                parentDir[child] = (byte) rootDir;
+                nextDir[child] = 0;
+                reached++;
+                while (top > 0) {
+                    int cell = component[top - 1];
+                    if (nextDir[cell] < 4) {
+                        int dir = nextDir[cell]++;
+                        if ((canMask[cell] & (1 << dir)) == 0) {
+                            continue;
+                        }
+                        int next = neighbours[cell * 4 + dir];
+                        if (disc[next] == 0) {
+                            disc[next] = ++time;
+                            low[next] = time;
+                            parent[next] = cell;
+                            parentDir[next] = (byte) dir;
+                            nextDir[next] = 0;
+                            component[top++] = next;
+                            reached++;
+                        } else if (next != parent[cell]) {
+                            low[cell] = Math.min(low[cell], disc[next]);
+                        }
+                        continue;
+                    }
+                    top--;
+                    int up = parent[cell];
+                    if (low[cell] > disc[up]) {
+                        bridgeCell[bridges++] = cell;
+                    }
+                    if (!anchored[up]) {
+                        low[up] = Math.min(low[up], low[cell]);
+                    }
+                }
+            }
+        }
+        if (reached != tileCount) {
+            return -1;
+        }
+
+        int mark = trailSize;
+        int made = 0;
+        queueHead = 0;
+        queueTail = 0;
+        for (int i = 0; i < bridges; i++) {
+            int cell = bridgeCell[i];
+            int up = parent[cell];
+            int dir = parentDir[cell];
+            if ((mustMask[up] & (1 << dir)) != 0) {
+                continue;
+            }
+            made++;
+            restrictTo(up, dir);
+            restrictTo(cell, BoardState.opposite(dir));
+        }
+        if (made > 0 && !(propagate() && checkGroups(mark, false))) {
+            return -1;
+        }
+        return made;
+    }
+
+    // Keeps only the orientations of the tile that connect to the side
+    private void restrictTo(int cell, int dir) {
+        int kept = 0;
+        int options = domain[cell];
+        while (options != 0) {
+            int turn = Integer.lowestOneBit(options);
+            options &= ~turn;
+            if ((BoardState.rotate(baseMask[cell], Integer.numberOfTrailingZeros(turn)) & (1 << dir)) != 0) {
+                kept |= turn;
+            }
+        }
+        if (kept != domain[cell]) {
+            setDomain(cell, kept);
+            enqueueNeighbours(cell);
+        }
+    }
+
+    // Anchors the groups joined to an anchored tile by connections settled since the mark
+    private void extendAnchors(int mark) {
+        for (int t = mark; t < trailSize; t++) {
+            int cell = trailCell[t];
+            for (int dir = 0; dir < 4; dir++) {
+                if ((mustMask[cell] & (1 << dir)) == 0) {
+                    continue;
+                }
+                int next = neighbours[cell * 4 + dir];
+                if (anchored[cell] != anchored[next]) {
+                    anchorFrom(anchored[cell] ? next : cell);
+                }
+            }
+        }
+    }
+
+    // Anchors the group of the tile: every tile joined to it by settled connections
+    private void anchorFrom(int start) {
+        int tail = 0;
+        component[tail++] = start;
+        anchored[start] = true;
+        anchorTrail[anchorSize++] = start;
+        for (int head = 0; head < tail; head++) {
+            int cell = component[head];
+            for (int dir = 0; dir < 4; dir++) {
+                int next = neighbours[cell * 4 + dir];
+                if ((mustMask[cell] & (1 << dir)) != 0 && !anchored[next]) {
+                    anchored[next] = true;
+                    anchorTrail[anchorSize++] = next;
+                    component[tail++] = next;
+                }
+            }
+        }
+    }
+
+    private void releaseAnchors(int mark) {
+        while (anchorSize > mark) {
+            anchored[anchorTrail[--anchorSize]] = false;
+        }
+    }
+
+    // Checks the groups of tiles joined by settled connections around the tiles changed
+    // since the trail mark (or around all tiles). A group is closed when none of its
+    // tiles has an undecided side left; a closed group without a source can never be
+    // powered, one with two source colours is a short circuit, and one holding every
+    // source leaves the tiles outside it unpowered.
+    private boolean checkGroups(int mark, boolean allTiles) {
+        if (epoch > Integer.MAX_VALUE - size - 1) {
+            Arrays.fill(seen, 0);
+            epoch = 0;
+        }
+        roundStart = epoch + 1;
+        if (allTiles) {
+            for (int i = 0; i < size; i++) {
+                if (!checkGroup(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        for (int t = mark; t < trailSize; t++) {
+            if (!checkGroup(trailCell[t])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean checkGroup(int start) {
+        if (seen[start] >= roundStart || canMask[start] != mustMask[start] || board.getKind(start) == BoardState.EMPTY) {
+            return true;
+        }
+        epoch++;
+        int head = 0;
+        int tail = 0;
+        int colors = 0;
+        int sources = 0;
+        component[tail++] = start;
+        seen[start] = epoch;
+        while (head < tail) {
+            int cell = component[head++];
+            if (canMask[cell] != mustMask[cell]) {
+                // The group can still grow through this tile
+                return true;
+            }
+            if (sourceColor[cell] != 0) {
+                colors |= sourceColor[cell];
+                sources++;
+            }
+            for (int dir = 0; dir < 4; dir++) {
+                if ((mustMask[cell] & (1 << dir)) == 0) {
+                    continue;
+                }
+                int next = neighbours[cell * 4 + dir];
+                if (seen[next] == epoch) {
+                    continue;
+                }
+                if (seen[next] >= roundStart) {
+                    // Joins a group found open earlier in this round
+                    return true;
+                }
+                seen[next] = epoch;
+                component[tail++] = next;
+            }
+        }
+        return colors != 0 && Integer.bitCount(colors) == 1 && (sources < sourceCount || tail == tileCount);
+    }
+
+    // Runs the work list until no domain changes; false on a contradiction
+    private boolean propagate() {
+        while (queueHead != queueTail) {
+            int cell = queue[queueHead];
+            queueHead = queueHead + 1 == queue.length ? 0 : queueHead + 1;
+            queued[cell] = false;
+            if (!revise(cell)) {
+                // Leave the work list empty for the next propagation
+                while (queueHead != queueTail) {
+                    queued[queue[queueHead]] = false;
+                    queueHead = queueHead + 1 == queue.length ? 0 : queueHead + 1;
+                }
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Removes the orientations of the tile that its neighbours cannot match
+    private boolean revise(int cell) {
+        int can = 0;
+        int must = 0;
+        for (int dir = 0; dir < 4; dir++) {
+            int next = neighbours[cell * 4 + dir];
+            if (next < 0) {
+                continue;
+            }
+            int side = BoardState.opposite(dir);
+            if ((canMask[next] & (1 << side)) != 0) {
+                can |= 1 << dir;
+            }
+            if ((mustMask[next] & (1 << side)) != 0) {
+                must |= 1 << dir;
+            }
+        }
+
+        int options = domain[cell];
+        int kept = 0;
+        while (options != 0) {
+            int turn = Integer.lowestOneBit(options);
+            options &= ~turn;
+            int mask = BoardState.rotate(baseMask[cell], Integer.numberOfTrailingZeros(turn));
+            if ((mask & ~can) == 0 && (must & ~mask) == 0) {
+                kept |= turn;
+            }
+        }
+        if (kept == 0) {
+            return false;
+        }
+        if (kept != domain[cell]) {
+            setDomain(cell, kept);
+            enqueueNeighbours(cell);
+        }
+        return true;
+    }
+
+    private void setDomain(int cell, int newDomain) {
+        if (trailSize == trailCell.length) {
+            trailCell = Arrays.copyOf(trailCell, trailSize * 2);
+            trailDomain = Arrays.copyOf(trailDomain, trailSize * 2);
+        }
+        trailCell[trailSize] = cell;
+        trailDomain[trailSize] = domain[cell];
+        trailSize++;
+        domain[cell] = newDomain;
+        updateMasks(cell);
+    }
+
+    private void undo(int mark) {
+        while (trailSize > mark) {
+            trailSize--;
+            int cell = trailCell[trailSize];
+            domain[cell] = trailDomain[trailSize];
+            updateMasks(cell);
+        }
+    }
+
+    private void updateMasks(int cell) {
+        int can = 0;
+        int must = 0xF;
+        int options = domain[cell];
+        while (options != 0) {
+            int turn = Integer.lowestOneBit(options);
+            options &= ~turn;
+            int mask = BoardState.rotate(baseMask[cell], Integer.numberOfTrailingZeros(turn));
+            can |= mask;
+            must &= mask;
+        }
+        canMask[cell] = can;
+        mustMask[cell] = must;
+    }
+
+    private void enqueue(int cell) {
+        if (!queued[cell]) {
+            queued[cell] = true;
+            queue[queueTail] = cell;
+            queueTail = queueTail + 1 == queue.length ? 0 : queueTail + 1;
+        }
+    }
+
+    private void enqueueNeighbours(int cell) {
+        for (int dir = 0; dir < 4; dir++) {
+            int next = neighbours[cell * 4 + dir];
+            if (next >= 0 && board.getKind(next) != BoardState.EMPTY) {
+                enqueue(next);
+            }
+        }
+    }
+
+    // Checks a complete assignment: every tile reached from a source, no colours meeting.
+    // The assignment is edge consistent, so a connection always leads into a tile.
+    private boolean isPowered() {
+        Arrays.fill(visited, false);
+        int reached = 0;
+        for (int source = 0; source < size; source++) {
+            if (sourceColor[source] == 0 || visited[source]) {
+                continue;
+            }
+            // Breadth-first flood of the component of the source, collecting its colours
+            int head = 0;
+            int tail = 0;
+            int colors = 0;
+            component[tail++] = source;
+            visited[source] = true;
+            while (head < tail) {
+                int cell = component[head++];
+                colors |= sourceColor[cell];
+                for (int dir = 0; dir < 4; dir++) {
+                    if ((canMask[cell] & (1 << dir)) == 0) {
+                        continue;
+                    }
+                    int next = neighbours[cell * 4 + dir];
+                    if (!visited[next]) {
+                        visited[next] = true;
+                        component[tail++] = next;
+                    }
+                }
+            }
+            if (Integer.bitCount(colors) > 1) {
+                return false;
+            }
+            reached += tail;
+        }
+        return reached == tileCount;
+    }
+
+    // Distinct orientations of a mask: symmetric tiles have fewer than four
+    static int distinctTurns(int mask) {
+        int turns = 1;
+        for (int turn = 1; turn < 4; turn++) {
+            boolean repeated = false;
+            for (int earlier = 0; earlier < turn; earlier++) {
+                if (BoardState.rotate(mask, turn) == BoardState.rotate(mask, earlier)) {
+                    repeated = true;
+                    break;
+                }
+            }
+            if (!repeated) {
+                turns |= 1 << turn;
+            }
+        }
+        return turns;
+    }
+
+    // Counts the solutions of the board, stopping at the limit. The count is exact only
+    // when it stays below the limit and the search was not cut off by the decision limit.
+    public int countSolutions(GameManager gameManager, int limit) {
+        solutionLimit = limit;
+        try {
+            solve(gameManager);
+        } finally {
+            solutionLimit = 1;
+        }
+        return solutionCount;
+    }
+
+    // Checks that the board has exactly one solution: the search goes on after the first
+    // solution and stops at the second one. A search cut off by the decision limit
+    // proves nothing, so the board does not count as unique then.
+    public boolean hasUniqueSolution(GameManager gameManager) {
+        return countSolutions(gameManager, 2) == 1 && exhausted;
+    }
+
+    // Whether the last solve was stopped by an interrupt of its thread or by cancel()
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    // Stops the running solve (and every later one) from another thread
+    void cancel() {
+        cancelRequested = true;
+    }
+
+    // Restricts the orientations of every tile (bits of clockwise quarter turns of its
+    // current mask) for the next solves; null allows all of them again
+    void setStartDomains(int[] startDomains) {
+        this.startDomains = startDomains;
+    }
+
+    // Orientations left to every tile where the last solve stopped. After a solve with
+    // the decision limit 0 that is the state deduced before the first decision.
+    int[] getDomains() {
+        return Arrays.copyOf(domain, size);
+    }
+
+    // Tile the search would decide next in the state where the last solve stopped,
+    // -1 when every tile is decided
+    int nextBranchCell() {
+        return pickBranchCell(-1);
+    }
+
+    // Whether the last solve explored its whole search tree, so a failed solve proves
+    // that the board has no solution
+    boolean isExhausted() {
+        return exhausted;
+    }
+
+    public boolean isSolved() {
+        return solved;
+    }
+
+    // Clockwise quarter turns from the current orientation of the tile to the solution
+    public int getSolutionTurns(int index) {
+        return solution[index];
+    }
+
+    // Tiles fixed by deduction before the first decision
+    public int getForcedCount() {
+        return forcedCount;
+    }
+
+    public boolean isForced(int index) {
+        return forcedTurns[index] >= 0;
+    }
+
+    // Clockwise quarter turns a forced tile must make, -1 when the tile is not forced.
+    // Forced turns are known even when the search itself fails or gives up.
+    public int getForcedTurns(int index) {
+        return forcedTurns[index];
+    }
+
+    // Branching decisions taken by the search
+    public int getDecisionCount() {
+        return decisionCount;
+    }
+
+    // Orientations tried and undone after a contradiction
+    public int getBacktrackCount() {
+        return backtrackCount;
+    }
+
+    // Orientations tried by probing
+    public long getProbeCount() {
+        return probeCount;
+    }
+
+    public int getRestartCount() {
+        return restartCount;
+    }
+
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+}
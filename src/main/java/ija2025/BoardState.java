@@ -0,0 +1,335 @@
+/*
+ * BoardState.java
+ *
+ * Authors: Zhdanovich Iaroslav (xzhdan00)
+ *          Malytskyi Denys     (xmalytd00)
+ *
+ * Description: Headless model of the game board in the "lightbulb" project.
+ * Every cell is packed into a single byte stored in a flat array indexed by
+ * row * cols + col: a 4-bit connection mask, a 2-bit tile kind, a powered bit
+ * and a disconnected bit. Game nodes and the game manager read and write the
+ * board through this class, so connection tests are single bit operations.
+ * Counters of wires and bulbs (total and powered) are kept up to date by every
+ * mutation, so win detection and progress queries take constant time. Cells
+ * whose byte changed are collected as dirty so the renderer repaints only them.
+ * Alongside the bytes every cell keeps a bitmask of the power sources feeding it
+ * (bit i for the i-th source); an unpowered cell always has an empty mask.
+ */
+
+
+package ija2025;
+
+import java.util.BitSet;
+
+public class BoardState {
+    // Tile kinds (bits 4-5)
+    public static final int EMPTY = 0;
+    public static final int WIRE = 1;
+    public static final int BULB = 2;
+    public static final int POWER = 3;
+
+    // Connection bits (bits 0-3), ordered like WireNode.Direction
+    public static final int UP = 1;
+    public static final int RIGHT = 2;
+    public static final int DOWN = 4;
+    public static final int LEFT = 8;
+
+    private static final int MASK_BITS = 0x0F;
+    private static final int KIND_SHIFT = 4;
+    private static final int KIND_BITS = 0x30;
+    private static final int POWERED_BIT = 0x40;
+    private static final int DISCONNECTED_BIT = 0x80;
+
+    // Row and column offsets indexed by direction (UP, RIGHT, DOWN, LEFT)
+    static final int[] ROW_DELTA = {-1, 0, 1, 0};
+    static final int[] COL_DELTA = {0, 1, 0, -1};
+
+    private final int rows;
+    private final int cols;
+    private final byte[] cells;
+    // Power sources feeding each cell (bit i = i-th source), empty when not powered
+    private final int[] sources;
+
+    // Tile counters maintained by every mutation
+    private int wireCount = 0;
+    private int bulbCount = 0;
+    private int poweredWireCount = 0;
+    private int poweredBulbCount = 0;
+
+    // Cells changed since the last repaint
+    private final BitSet dirty;
+    private final int[] dirtyCells;
+    private int dirtyCount = 0;
+
+    public BoardState(int rows, int cols) {
+        this.rows = rows;
+        this.cols = cols;
+        this.cells = new byte[rows * cols];
+        this.sources = new int[rows * cols];
+        this.dirty = new BitSet(rows * cols);
+        this.dirtyCells = new int[rows * cols];
+    }
+
+    // Independent copy of the cells, source masks and counters (without the dirty set),
+    // so a background thread can read the board while the game goes on
+    public BoardState snapshot() {
+        BoardState copy = new BoardState(rows, cols);
+        System.arraycopy(cells, 0, copy.cells, 0, cells.length);
+        System.arraycopy(sources, 0, copy.sources, 0, sources.length);
+        copy.wireCount = wireCount;
+        copy.bulbCount = bulbCount;
+        copy.poweredWireCount = poweredWireCount;
+        copy.poweredBulbCount = poweredBulbCount;
+        return copy;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getCols() {
+        return cols;
+    }
+
+    public int size() {
+        return cells.length;
+    }
+
+    public int index(int row, int col) {
+        return row * cols + col;
+    }
+
+    public int row(int index) {
+        return index / cols;
+    }
+
+    public int col(int index) {
+        return index % cols;
+    }
+
+    public boolean inBounds(int row, int col) {
+        return row >= 0 && row < rows && col >= 0 && col < cols;
+    }
+
+    // Index of the neighbour cell in the given direction, or -1 outside the board
+    public int neighbour(int index, int dir) {
+        int row = index / cols + ROW_DELTA[dir];
+        int col = index % cols + COL_DELTA[dir];
+        return inBounds(row, col) ? row * cols + col : -1;
+    }
+
+    // Single write path for cell bytes: keeps the counters and the dirty set in sync
+    private void write(int index, int value) {
+        byte old = cells[index];
+        if (old == (byte) value) {
+            return;
+        }
+        count(old, -1);
+        cells[index] = (byte) value;
+        count(cells[index], 1);
+        if ((value & POWERED_BIT) == 0) {
+            sources[index] = 0;
+        }
+        markDirty(index);
+    }
+
+    // Places a tile of the given kind, resetting its power and disconnected state
+    public void setCell(int index, int kind, int mask) {
+        write(index, (kind << KIND_SHIFT) | (mask & MASK_BITS));
+    }
+
+    public void clear(int index) {
+        write(index, 0);
+    }
+
+    public void clearAll() {
+        for (int i = 0; i < cells.length; i++) {
+            write(i, 0);
+        }
+    }
+
+    // Adds (delta = 1) or removes (delta = -1) the contribution of a cell byte to the counters
+    private void count(byte cell, int delta) {
+        int kind = (cell & KIND_BITS) >> KIND_SHIFT;
+        boolean powered = (cell & POWERED_BIT) != 0;
+        if (kind == WIRE) {
+            wireCount += delta;
+            if (powered) {
+                poweredWireCount += delta;
+            }
+        } else if (kind == BULB) {
+            bulbCount += delta;
+            if (powered) {
+                poweredBulbCount += delta;
+            }
+        }
+    }
+
+    public int getKind(int index) {
+        return (cells[index] & KIND_BITS) >> KIND_SHIFT;
+    }
+
+    public boolean isEmpty(int index) {
+        return (cells[index] & KIND_BITS) == 0;
+    }
+
+    public int getMask(int index) {
+        return cells[index] & MASK_BITS;
+    }
+
+    public void setMask(int index, int mask) {
+        write(index, (cells[index] & ~MASK_BITS) | (mask & MASK_BITS));
+    }
+
+    public boolean hasConnection(int index, int dir) {
+        return (cells[index] & (1 << dir)) != 0;
+    }
+
+    public void addConnection(int index, int dir) {
+        write(index, cells[index] | (1 << dir));
+    }
+
+    public boolean removeConnection(int index, int dir) {
+        boolean had = hasConnection(index, dir);
+        write(index, cells[index] & ~(1 << dir));
+        return had;
+    }
+
+    // Rotates the connection mask clockwise by the given number of quarter turns
+    public void rotateMask(int index, int quarterTurns) {
+        setMask(index, rotate(getMask(index), quarterTurns));
+    }
+
+    public boolean isPowered(int index) {
+        return (cells[index] & POWERED_BIT) != 0;
+    }
+
+    public void setPowered(int index, boolean powered) {
+        write(index, powered ? cells[index] | POWERED_BIT : cells[index] & ~POWERED_BIT);
+    }
+
+    // Bitmask of the power sources feeding the cell
+    public int getSources(int index) {
+        return sources[index];
+    }
+
+    public void setSources(int index, int sourceMask) {
+        if (sources[index] != sourceMask) {
+            sources[index] = sourceMask;
+            markDirty(index);
+        }
+    }
+
+    // Copies the source masks of all cells into the given array
+    public void copySources(int[] target) {
+        System.arraycopy(sources, 0, target, 0, sources.length);
+    }
+
+    public boolean isDisconnected(int index) {
+        return (cells[index] & DISCONNECTED_BIT) != 0;
+    }
+
+    public void setDisconnected(int index, boolean disconnected) {
+        write(index, disconnected ? cells[index] | DISCONNECTED_BIT : cells[index] & ~DISCONNECTED_BIT);
+    }
+
+    // Switches off every tile except power sources
+    public void unpowerAll() {
+        for (int i = 0; i < cells.length; i++) {
+            if ((cells[i] & KIND_BITS) != (POWER << KIND_SHIFT)) {
+                write(i, cells[i] & ~POWERED_BIT);
+            }
+        }
+    }
+
+    // Marks a cell for repaint (e.g. when only the node's view changed)
+    public void markDirty(int index) {
+        if (!dirty.get(index)) {
+            dirty.set(index);
+            dirtyCells[dirtyCount++] = index;
+        }
+    }
+
+    public int getDirtyCount() {
+        return dirtyCount;
+    }
+
+    // Index of the i-th dirty cell, in the order the cells were changed
+    public int getDirtyCell(int i) {
+        return dirtyCells[i];
+    }
+
+    public void clearDirty() {
+        dirty.clear();
+        dirtyCount = 0;
+    }
+
+    public int getWireCount() {
+        return wireCount;
+    }
+
+    public int getBulbCount() {
+        return bulbCount;
+    }
+
+    public int getPoweredWireCount() {
+        return poweredWireCount;
+    }
+
+    public int getPoweredBulbCount() {
+        return poweredBulbCount;
+    }
+
+    // Checks whether every wire and every bulb on the board is powered
+    public boolean isFullyPowered() {
+        return poweredWireCount == wireCount && poweredBulbCount == bulbCount;
+    }
+
+    // Checks whether every connection of every tile is answered by the neighbour on that
+    // side: no connection leads off the board, into an empty cell or into a tile that
+    // does not connect back (the same edge rule the solver applies)
+    public boolean isClosed() {
+        for (int index = 0; index < cells.length; index++) {
+            int mask = getMask(index);
+            for (int dir = 0; dir < 4; dir++) {
+                if ((mask & (1 << dir)) == 0) {
+                    continue;
+                }
+                int next = neighbour(index, dir);
+                if (next < 0 || !hasConnection(next, opposite(dir))) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    // Directions the tile passes power into (bulbs only receive power)
+    public int outputMask(int index) {
+        int kind = getKind(index);
+        return kind == WIRE || kind == POWER ? getMask(index) : 0;
+    }
+
+    // Checks whether the tile accepts power arriving on the given side.
+    // A bulb's mask holds the single direction it faces.
+    public boolean acceptsFrom(int index, int side) {
+        int kind = getKind(index);
+        if (kind == POWER) {
+            return true;
+        }
+        return kind != EMPTY && hasConnection(index, side);
+    }
+
+    public static int bit(WireNode.Direction direction) {
+        return 1 << direction.ordinal();
+    }
+
+    public static int opposite(int dir) {
+        return (dir + 2) & 3;
+    }
+
+    public static int rotate(int mask, int quarterTurns) {
+        int turns = quarterTurns & 3;
+        return ((mask << turns) | (mask >> (4 - turns))) & MASK_BITS;
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * DiagnosticsRingBuffer.java
+ *
+ * Authors: Zhdanovich Iaroslav (xzhdan00)
+ *          Malytskyi Denys     (xmalytd00)
+ *
+ * Description: Diagnostics sink that keeps the most recent events in a fixed-size
+ * in-memory ring buffer instead of printing them. The buffer can be dumped after
+ * a failure to see what led up to it, without paying for console output while
+ * the game runs.
+ */
+
+
+package ija2025;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class DiagnosticsRingBuffer implements Diagnostics.Sink {
+    private final Diagnostics.Subsystem[] subsystems;
+    private final String[] messages;
+    private final long[] timestamps;
+    private int next = 0;
+    private long recorded = 0;
+
+    public DiagnosticsRingBuffer(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Ring buffer capacity must be positive: " + capacity);
+        }
+        subsystems = new Diagnostics.Subsystem[capacity];
+        messages = new String[capacity];
+        timestamps = new long[capacity];
+    }
+
+    @Override
+    public synchronized void record(Diagnostics.Subsystem subsystem, String message) {
+        subsystems[next] = subsystem;
+        messages[next] = message;
+        timestamps[next] = System.nanoTime();
+        next = (next + 1) % messages.length;
+        recorded++;
+    }
+
+    // Number of events recorded since creation (including overwritten ones)
+    public synchronized long getRecordedCount() {
+        return recorded;
+    }
+
+    // Buffered events from the oldest to the newest
+    public synchronized List<String> snapshot() {
+        int size = (int) Math.min(recorded, messages.length);
+        int start = recorded > messages.length ? next : 0;
+        List<String> events = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            int slot = (start + i) % messages.length;
+            events.add("[" + subsystems[slot] + " " + timestamps[slot] + "] " + messages[slot]);
+        }
+        return events;
+    }
+
+    // Writes buffered events from the oldest to the newest
+    public void dump(PrintStream out) {
+        for (String event : snapshot()) {
+            out.println(event);
+        }
+    }
+
+    public synchronized void clear() {
+        next = 0;
+        recorded = 0;
+        Arrays.fill(subsystems, null);
+        Arrays.fill(messages, null);
+    }
+}
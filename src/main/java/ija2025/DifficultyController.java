@@ -18,6 +18,7 @@ import javafx.animation.ScaleTransition;
 import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
 import javafx.scene.control.Button;
+import javafx.scene.control.TextField;
 import javafx.scene.effect.Glow;
 import javafx.scene.paint.Color;
 import javafx.scene.text.Text;
@@ -45,6 +46,10 @@ public class DifficultyController implements Initializable {
     @FXML
     private Button backButton;
 
+    // Optional seed of the board to generate
+    @FXML
+    private TextField seedField;
+
     // Initialize the controller after FXML has been loaded
     @Override
     public void initialize(URL url, ResourceBundle resourceBundle) {
@@ -100,11 +105,26 @@ public class DifficultyController implements Initializable {
 
         // Store the selected difficulty to be accessed by GameController
         GameController.setSelectedDifficulty(difficultyEnum);
+        GameController.setSelectedSeed(parseSeed());
 
         // Switch to game screen
         SceneTransitionManager.switchScene(easyButton, "/game-view.fxml");
     }
 
+    // Seed typed by the player: a number is used as is, any other text is hashed,
+    // an empty field means a random board
+    private Long parseSeed() {
+        String text = seedField == null ? "" : seedField.getText().trim();
+        if (text.isEmpty()) {
+            return null;
+        }
+        try {
+            return Long.parseLong(text);
+        } catch (NumberFormatException e) {
+            return (long) text.hashCode();
+        }
+    }
+
     // Setup visual transitions for all UI elements
     private void setupButtonTransitions() {
         setupButtonTransition(easyButton);
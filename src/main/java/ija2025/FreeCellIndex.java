@@ -0,0 +1,77 @@
+/*
+ * FreeCellIndex.java
+ *
+ * Authors: Zhdanovich Iaroslav (xzhdan00)
+ *          Malytskyi Denys     (xmalytd00)
+ *
+ * Description: Set of free (empty) board cells used during board generation in the
+ * "lightbulb" project. Cell indices are kept densely packed in an array together
+ * with the position of every cell in it, so adding and removing a cell (swap with
+ * the last element), picking a random free cell and checking whether any cell is
+ * left all take constant time.
+ */
+
+
+package ija2025;
+
+import java.util.Random;
+
+public final class FreeCellIndex {
+    private final int[] cells;
+    // Position of each cell in cells, -1 when the cell is occupied
+    private final int[] position;
+    private int size = 0;
+
+    public FreeCellIndex(int cellCount) {
+        this.cells = new int[cellCount];
+        this.position = new int[cellCount];
+        fill();
+    }
+
+    // Marks every cell as free
+    public void fill() {
+        for (int i = 0; i < cells.length; i++) {
+            cells[i] = i;
+            position[i] = i;
+        }
+        size = cells.length;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean contains(int index) {
+        return position[index] >= 0;
+    }
+
+    // Marks the cell as occupied
+    public void remove(int index) {
+        int pos = position[index];
+        if (pos < 0) {
+            return;
+        }
+        int last = cells[--size];
+        cells[pos] = last;
+        position[last] = pos;
+        position[index] = -1;
+    }
+
+    // Marks the cell as free again
+    public void add(int index) {
+        if (position[index] >= 0) {
+            return;
+        }
+        cells[size] = index;
+        position[index] = size++;
+    }
+
+    // Uniformly chosen free cell; the set must not be empty
+    public int random(Random random) {
+        return cells[random.nextInt(size)];
+    }
+}
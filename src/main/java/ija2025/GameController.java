@@ -7,6 +7,7 @@ import javafx.animation.Interpolator;
 import javafx.animation.KeyFrame;
 import javafx.animation.ScaleTransition;
 import javafx.animation.Timeline;
+import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.fxml.Initializable;
@@ -33,11 +34,18 @@ import java.io.IOException;
 import java.net.URL;
 import java.util.Objects;
 import java.util.ResourceBundle;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 public class GameController implements Initializable {
     @FXML
     private Text timerText;
 
+    @FXML
+    private Text progressText;
+    @FXML
+    private Text seedText;
+
     @FXML
     private Button pauseButton;
 
@@ -50,6 +58,9 @@ public class GameController implements Initializable {
     @FXML
     private Button solutionButton;
 
+    @FXML
+    private Button hintButton;
+
     @FXML
     private Pane gameField;
 
@@ -63,15 +74,26 @@ public class GameController implements Initializable {
     private boolean isPaused = false;
 
     private GameManager gameManager;
+    // Hints are computed in the background after every move and outlined while shown
+    private HintEngine hintEngine;
+    private boolean hintsShown = false;
 
     // Static variable to store the selected difficulty
     private static GameManager.Difficulty selectedDifficulty = GameManager.Difficulty.EASY;
 
+    // Seed of the next board, or null for a random one
+    private static Long selectedSeed = null;
+
     // Static method to set the selected difficulty
     public static void setSelectedDifficulty(GameManager.Difficulty difficulty) {
         selectedDifficulty = difficulty;
     }
 
+    // Static method to start the next game from the given seed (null for a random board)
+    public static void setSelectedSeed(Long seed) {
+        selectedSeed = seed;
+    }
+
     @Override
     public void initialize(URL url, ResourceBundle resourceBundle) {
         setupButtonTransitions();
@@ -100,6 +122,10 @@ public class GameController implements Initializable {
         solutionButton.setOnAction(event -> {
            showSolution();
         });
+
+        hintButton.setOnAction(event -> {
+            toggleHints();
+        });
     }
 
     private void setupButtonTransitions() {
@@ -376,24 +402,26 @@ public class GameController implements Initializable {
         return nodeType + rotationsNeeded;
     }
 
-    private void drawSolutionGrid(GraphicsContext gc, int gridSize, double cellSize) {
+    private void drawSolutionGrid(GraphicsContext gc, int rows, int cols, double cellSize) {
         // Очищаем холст
-        gc.clearRect(0, 0, gridSize * cellSize, gridSize * cellSize);
+        gc.clearRect(0, 0, cols * cellSize, rows * cellSize);
 
         // Рисуем сетку
         gc.setStroke(Color.rgb(60, 63, 65));
         gc.setLineWidth(1);
 
         // Рисуем горизонтальные и вертикальные линии
-        for (int i = 0; i <= gridSize; i++) {
-            gc.strokeLine(0, i * cellSize, gridSize * cellSize, i * cellSize);
-            gc.strokeLine(i * cellSize, 0, i * cellSize, gridSize * cellSize);
+        for (int i = 0; i <= rows; i++) {
+            gc.strokeLine(0, i * cellSize, cols * cellSize, i * cellSize);
+        }
+        for (int i = 0; i <= cols; i++) {
+            gc.strokeLine(i * cellSize, 0, i * cellSize, rows * cellSize);
         }
 
         // Отображаем элементы решения с числами
         GameNode[][] grid = gameManager.getGrid();
-        for (int row = 0; row < gridSize; row++) {
-            for (int col = 0; col < gridSize; col++) {
+        for (int row = 0; row < rows; row++) {
+            for (int col = 0; col < cols; col++) {
                 if (grid[row][col] != null) {
                     GameNode node = grid[row][col];
                     // Рисуем фон ячейки
@@ -424,6 +452,10 @@ public class GameController implements Initializable {
         }
     }
     private void showSolution() {
+        if (gameManager == null) {
+            return;
+        }
+
         // Создаем новое окно
         Stage solutionStage = new Stage();
         solutionStage.initModality(Modality.APPLICATION_MODAL);
@@ -440,13 +472,14 @@ public class GameController implements Initializable {
         solutionTitle.setFont(new Font("Papyrus", 24));
 
         // Создаем холст для отображения сетки с решением
-        int gridSize = gameManager.getGridSize();
-        double cellSize = Math.min(500, 500) / gridSize;
-        Canvas solutionCanvas = new Canvas(gridSize * cellSize, gridSize * cellSize);
+        int rows = gameManager.getRows();
+        int cols = gameManager.getCols();
+        double cellSize = 500.0 / Math.max(rows, cols);
+        Canvas solutionCanvas = new Canvas(cols * cellSize, rows * cellSize);
         GraphicsContext gc = solutionCanvas.getGraphicsContext2D();
 
         // Рисуем сетку с цифрами
-        drawSolutionGrid(gc, gridSize, cellSize);
+        drawSolutionGrid(gc, rows, cols, cellSize);
 
         // Кнопка закрытия
         Button closeButton = createStyledButton("Закрыть");
@@ -471,8 +504,8 @@ public class GameController implements Initializable {
         solutionStage.setScene(solutionScene);
 
         // Позиционируем окно по центру относительно родителя
-        solutionStage.setWidth(gridSize * cellSize + 100);
-        solutionStage.setHeight(gridSize * cellSize + 200);
+        solutionStage.setWidth(cols * cellSize + 100);
+        solutionStage.setHeight(rows * cellSize + 200);
         solutionStage.setX(solutionButton.getScene().getWindow().getX() +
                 (solutionButton.getScene().getWindow().getWidth() - solutionStage.getWidth()) / 2);
         solutionStage.setY(solutionButton.getScene().getWindow().getY() +
@@ -487,24 +520,120 @@ public class GameController implements Initializable {
     private void setupGameField() {
         gameField.setStyle("-fx-border-color: rgb(60, 63, 65); -fx-border-width: 2px;");
 
-        // Initialize the game manager with the selected difficulty
-        gameManager = new GameManager(selectedDifficulty);
+        // Take a prepared board of the selected difficulty (or generate the selected seed)
+        // in the background; the FX thread only attaches the finished board
+        CompletableFuture<GameManager> board = selectedSeed != null
+                ? BoardPool.generate(selectedDifficulty, selectedSeed)
+                : BoardPool.take(selectedDifficulty);
+        board.thenAcceptAsync(this::startGame, Platform::runLater)
+                .exceptionally(e -> {
+                    Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                    Platform.runLater(() -> showGenerationError(cause.getMessage()));
+                    return null;
+                });
+    }
+
+    // No board could be generated: the message is shown and the player goes back
+    // to the difficulty selection
+    private void showGenerationError(String message) {
+        timeline.stop();
+
+        Stage errorPopup = new Stage();
+        errorPopup.initModality(Modality.APPLICATION_MODAL);
+        errorPopup.initStyle(StageStyle.UNDECORATED);
+        errorPopup.initOwner(pauseButton.getScene().getWindow());
+
+        VBox errorLayout = new VBox(20);
+        errorLayout.setAlignment(Pos.CENTER);
+        errorLayout.setStyle("-fx-background-color: rgb(43, 45, 48); -fx-padding: 20px;");
+
+        Text errorTitle = new Text("Board not generated");
+        errorTitle.setStyle("-fx-fill: rgb(205, 205, 205); -fx-font-size: 24px;");
+        errorTitle.setFont(new Font("Papyrus", 24));
+
+        Text errorMessage = new Text(message);
+        errorMessage.setStyle("-fx-fill: rgb(205, 205, 205); -fx-font-size: 16px;");
+        errorMessage.setFont(new Font("Papyrus", 16));
+        errorMessage.setWrappingWidth(310);
+
+        Button backButton = createStyledButton("Back");
+        backButton.setOnAction(e -> {
+            Stage primaryStage = (Stage) errorPopup.getOwner();
+            leaveGame(primaryStage, "difficulty-view.fxml");
+            errorPopup.close();
+        });
+
+        errorLayout.getChildren().addAll(errorTitle, errorMessage, backButton);
+
+        Scene errorScene = new Scene(errorLayout, 350, 300);
+        errorPopup.setScene(errorScene);
+
+        errorPopup.setX(pauseButton.getScene().getWindow().getX() +
+                       (pauseButton.getScene().getWindow().getWidth() - 350) / 2);
+        errorPopup.setY(pauseButton.getScene().getWindow().getY() +
+                       (pauseButton.getScene().getWindow().getHeight() - 300) / 2);
+
+        errorPopup.show();
+    }
+
+    private void startGame(GameManager preparedBoard) {
+        gameManager = preparedBoard;
 
         // Initialize the game
         gameManager.initializeGame(gameField);
+        updateProgressText();
+        if (seedText != null) {
+            // The seed lets the same board be generated again
+            seedText.setText("Seed: " + gameManager.getSeed());
+        }
 
-        // Check for win condition after each move
-        gameField.setOnMouseClicked(event -> {
+        // Update progress and check for win condition after each move
+        gameManager.addPowerChangeListener(event -> {
+            updateProgressText();
             if (gameManager.isGameWon()) {
                 showWinMessage();
             }
         });
+
+        hintEngine = new HintEngine(gameManager, hint -> showHint());
+        hintEngine.start();
+    }
+
+    // Switches the outline of the hinted tile on and off
+    private void toggleHints() {
+        if (gameManager == null) {
+            return;
+        }
+        hintsShown = !hintsShown;
+        hintButton.setText(hintsShown ? "Hide hint" : "Hint");
+        showHint();
+    }
+
+    private void showHint() {
+        if (gameManager.getRenderer() == null) {
+            return;
+        }
+        HintEngine.Hint hint = hintEngine.getHint();
+        BoardState board = gameManager.getBoardState();
+        gameManager.getRenderer().setHintCell(hintsShown && hint != null ? board.index(hint.getRow(), hint.getCol()) : -1);
+    }
+
+    // Shows how many bulbs are lit and how many clicks are left to the solution
+    // (constant-time counters kept by the board and the game manager)
+    private void updateProgressText() {
+        if (progressText != null) {
+            progressText.setText("Bulbs lit: " + gameManager.getLitBulbCount() + "/" + gameManager.getBulbCount()
+                    + "  Moves left: " + gameManager.getTotalClicksRemaining());
+        }
     }
 
     private void showWinMessage() {
         // Pause the game
         isPaused = true;
         timeline.pause();
+        hintEngine.stop();
+        hintsShown = false;
+        showHint();
 
         // Create a popup to show the win message
         Stage winPopup = new Stage();
@@ -533,13 +662,13 @@ public class GameController implements Initializable {
 
         mainMenuButton.setOnAction(e -> {
             Stage primaryStage = (Stage) winPopup.getOwner();
-            SceneTransitionManager.switchScene(primaryStage.getScene().getRoot(), "main-view.fxml");
+            leaveGame(primaryStage, "main-view.fxml");
             winPopup.close();
         });
 
         newGameButton.setOnAction(e -> {
             Stage primaryStage = (Stage) winPopup.getOwner();
-            SceneTransitionManager.switchScene(primaryStage.getScene().getRoot(), "difficulty-view.fxml");
+            leaveGame(primaryStage, "difficulty-view.fxml");
             winPopup.close();
         });
 
@@ -556,6 +685,14 @@ public class GameController implements Initializable {
         winPopup.show();
     }
 
+    // Leaves the game view for another one; the background hint search ends with it
+    private void leaveGame(Stage primaryStage, String view) {
+        if (hintEngine != null) {
+            hintEngine.stop();
+        }
+        SceneTransitionManager.switchScene(primaryStage.getScene().getRoot(), view);
+    }
+
     private void startTimer() {
         timeline = new Timeline(new KeyFrame(Duration.seconds(1), event -> {
             seconds++;
@@ -608,7 +745,7 @@ public class GameController implements Initializable {
 
         mainMenuButton.setOnAction(e -> {
             Stage primaryStage = (Stage) pausePopup.getOwner();
-            SceneTransitionManager.switchScene(primaryStage.getScene().getRoot(), "main-view.fxml");
+            leaveGame(primaryStage, "main-view.fxml");
             pausePopup.close();
         });
 
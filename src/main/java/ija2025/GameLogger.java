@@ -7,6 +7,7 @@
  * Description: Logger class that tracks and records game state, player moves and
  * game statistics in JSON format for the "lightbulb" project. Provides functionality
  * for logging initial game state, player actions, and manages log file operations.
+ * Player moves arrive as power change events published by the game manager.
  */
 
 
@@ -21,13 +22,14 @@ import java.io.IOException;
 import java.text.SimpleDateFormat;
 import java.util.Date;
 
-public class GameLogger {
+public class GameLogger implements PowerChangeListener {
     private final ObjectMapper mapper;
     private final ObjectNode gameLog;
     private final ArrayNode movesLog;
     private final File logFile;
     private int moveCounter;
     private boolean isLoggingEnabled = true;
+    private boolean isGenerationStatsLogged = false;
 
     public GameLogger() {
         mapper = new ObjectMapper();
@@ -52,19 +54,29 @@ public class GameLogger {
     public void setLoggingEnabled(boolean enabled) {
         this.isLoggingEnabled = enabled;
     }
+    // Enables recording of the board generation statistics in the initial state
+    public void setGenerationStatsLogged(boolean logged) {
+        this.isGenerationStatsLogged = logged;
+    }
     // Method for logging the initial game state
     public void logInitialState(GameManager gameManager) {
         ObjectNode initialState = mapper.createObjectNode();
         initialState.put("timestamp", new Date().toString());
         initialState.put("difficulty", gameManager.getDifficulty().toString());
-        initialState.put("gridSize", gameManager.getGridSize());
+        initialState.put("rows", gameManager.getRows());
+        initialState.put("cols", gameManager.getCols());
+        initialState.put("seed", gameManager.getSeed());
+        initialState.put("generator", gameManager.getGeneratorType().toString());
+        if (isGenerationStatsLogged && gameManager.isGenerated()) {
+            initialState.set("generationStats", createGenerationStats(gameManager.getGenerationStats()));
+        }
 
         // Array for all cell states
         ArrayNode gridState = mapper.createArrayNode();
 
         GameNode[][] grid = gameManager.getGrid();
-        for (int row = 0; row < gameManager.getGridSize(); row++) {
-            for (int col = 0; col < gameManager.getGridSize(); col++) {
+        for (int row = 0; row < gameManager.getRows(); row++) {
+            for (int col = 0; col < gameManager.getCols(); col++) {
                 GameNode node = grid[row][col];
                 if (node != null) {
                     ObjectNode nodeState = mapper.createObjectNode();
@@ -77,8 +89,10 @@ public class GameLogger {
                     // Add specific information for different node types
                     if (node instanceof WireNode wireNode) {
                         ArrayNode connections = mapper.createArrayNode();
-                        for (WireNode.Direction dir : wireNode.getConnectedDirections()) {
-                            connections.add(dir.toString());
+                        for (WireNode.Direction dir : WireNode.Direction.values()) {
+                            if (wireNode.isDirectionConnected(dir)) {
+                                connections.add(dir.toString());
+                            }
                         }
                         nodeState.set("connections", connections);
                     }
@@ -96,9 +110,62 @@ public class GameLogger {
         saveLogToFile();
     }
 
+    // Phase times in microseconds and work counters of the board generation
+    private ObjectNode createGenerationStats(GenerationStats stats) {
+        ObjectNode statsNode = mapper.createObjectNode();
+        ObjectNode phases = mapper.createObjectNode();
+        for (GenerationStats.Phase phase : GenerationStats.Phase.values()) {
+            phases.put(phase.toString(), stats.getPhaseNanos(phase) / 1000);
+        }
+        statsNode.set("phaseMicros", phases);
+        statsNode.put("totalMicros", stats.getTotalNanos() / 1000);
+        statsNode.put("placementAttempts", stats.getPlacementAttempts());
+        statsNode.put("routeSearches", stats.getRouteSearches());
+        statsNode.put("routeCellsVisited", stats.getRouteCellsVisited());
+        statsNode.put("routeFailures", stats.getRouteFailures());
+        statsNode.put("wireRepairIterations", stats.getWireRepairIterations());
+        statsNode.put("wiresReplaced", stats.getWiresReplaced());
+        statsNode.put("bulbRepairs", stats.getBulbRepairs());
+        statsNode.put("bulbsReplaced", stats.getBulbsReplaced());
+        statsNode.put("solverForced", stats.getSolverForced());
+        statsNode.put("solverDecisions", stats.getSolverDecisions());
+        statsNode.put("solverBacktracks", stats.getSolverBacktracks());
+        return statsNode;
+    }
+
+    // Logs a move published by the game manager together with its power changes
+    @Override
+    public void onPowerChanged(PowerChangeEvent event) {
+        if (!isLoggingEnabled) return;
+        int gained = 0;
+        int lost = 0;
+        for (int i = 0; i < event.getChangeCount(); i++) {
+            if (event.getChangeType(i) == PowerChangeEvent.POWER_GAINED) {
+                gained++;
+            } else if (event.getChangeType(i) == PowerChangeEvent.POWER_LOST) {
+                lost++;
+            }
+        }
+        // A committed batch is logged as one move per rotated node; the power delta
+        // belongs to the whole batch and is attached to its last move
+        ObjectNode move = null;
+        for (int i = 0; i < event.getRotatedCount(); i++) {
+            move = createMove(event.getRotatedNode(i), event.getPreviousRotation(i));
+            movesLog.add(move);
+        }
+        move.put("cellsPowered", gained);
+        move.put("cellsUnpowered", lost);
+        saveLogToFile();
+    }
+
     // Method for logging player's move
     public void logMove(GameNode node, int prevRotation) {
         if (!isLoggingEnabled) return;
+        movesLog.add(createMove(node, prevRotation));
+        saveLogToFile();
+    }
+
+    private ObjectNode createMove(GameNode node, int prevRotation) {
         moveCounter++;
         ObjectNode move = mapper.createObjectNode();
 
@@ -114,14 +181,15 @@ public class GameLogger {
         // Add information about wire connections
         if (node instanceof WireNode wireNode) {
             ArrayNode connections = mapper.createArrayNode();
-            for (WireNode.Direction dir : wireNode.getConnectedDirections()) {
-                connections.add(dir.toString());
+            for (WireNode.Direction dir : WireNode.Direction.values()) {
+                if (wireNode.isDirectionConnected(dir)) {
+                    connections.add(dir.toString());
+                }
             }
             move.set("connections", connections);
         }
 
-        movesLog.add(move);
-        saveLogToFile();
+        return move;
     }
 
     // Save log to file
@@ -5,6 +5,9 @@ import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.effect.Light;
 import javafx.scene.layout.GridPane;
 import javafx.scene.layout.Pane;
+import javafx.scene.paint.Color;
+
+import ija2025.Diagnostics.Subsystem;
 
 import java.util.*;
 
@@ -16,43 +19,169 @@ public class GameManager {
         HARD
     }
 
+    // Способ генерации доски
+    public enum GeneratorType {
+        PATH_ROUTING,  // случайные лампочки, проложенные к источнику поиском пути
+        SPANNING_TREE  // случайное остовное дерево от источника (SpanningTreeGenerator)
+    }
+
     private Difficulty difficulty;
-    private int gridSize;
+    private GeneratorType generatorType;
+    private int rows;
+    private int cols;
     private GameNode[][] grid;
+    private BoardState board;
     private PowerNode _powerNode;
+    // Все источники питания; бит i в маске источников клетки - i-й источник
+    private List<PowerNode> powerNodes;
     private List<LightBulbNode> lightBulbNodes;
     private Canvas gameCanvas;
     private GraphicsContext gc;
+    private GridRenderer renderer;
     private Random random;
-    private Map<String, Integer> originalRotations = new HashMap<>();
+    // Зерно генератора: одинаковые зерно и сложность дают одинаковую доску
+    private final long seed;
+    // Маски клеток в решении и число щелчков каждой клетки до него; щелчки ведутся
+    // при каждом повороте, их сумма - в totalClicksRemaining
+    private int[] solutionMasks;
+    private int[] clicksRemaining;
+    private int totalClicksRemaining = 0;
+    private PowerFlowEngine powerFlowEngine;
+    private GameLogger gameLogger;
+    // Подписчики на события ходов и переиспользуемое событие хода
+    private final List<PowerChangeListener> powerChangeListeners = new ArrayList<>();
+    private PowerChangeEvent moveEvent;
+    // Последний повернутый узел и его поворот до хода
+    private GameNode lastRotatedNode;
+    private int lastPreviousRotation;
+    // Во время генерации повороты узлов не записываются в журнал ходов
+    private boolean generating = false;
+    // Пакетный режим: глубина вложенности, отложенные пересчёт питания и перерисовка,
+    // повёрнутые в пакете узлы (каждый один раз, с поворотом до пакета)
+    private int batchDepth = 0;
+    private boolean batchPowerPending = false;
+    private boolean batchRedrawPending = false;
+    private BitSet batchRotated;
+    private PowerChangeEvent batchEvent;
+    // Доска уже сгенерирована (например, заранее в BoardPool)
+    private boolean generated = false;
+    // Сгенерированное решение выигрывает игру (проверяется до перемешивания)
+    private boolean solutionWon = false;
+    // Статистика последней генерации доски
+    private final GenerationStats generationStats = new GenerationStats();
+    // Свободные клетки сетки: случайный выбор и проверка наличия за O(1)
+    private FreeCellIndex freeCells;
+    // Поиск маршрутов от лампочек к источнику и ограничение их длины
+    private PathRouter pathRouter;
+    private int maxRouteLength;
+
+    private static final WireNode.Direction[] DIRECTIONS = WireNode.Direction.values();
+    // Сколько раз доска прокладывается заново, прежде чем генерация переходит к остовному дереву
+    private static final int ROUTING_ATTEMPTS = 3;
+    // Рабочий стек и множество посещённых клеток для распространения энергии
+    private int[] propagationStack;
+    private BitSet propagationVisited;
+    // Компоненты связности проводов за один проход: компонента каждой запитанной клетки,
+    // маски источников и цветов каждой компоненты и список запитанных клеток
+    private int[] componentOf;
+    private int[] componentSources;
+    private int[] componentColors;
+    private int componentCount;
+    private int[] poweredCells;
+    private int poweredCellCount;
+    // Маски источников до пересчёта (для списка изменившихся клеток)
+    private int[] previousSources;
+    // Клетки, в которые приходит энергия источников разных цветов
+    private int shortedCellCount;
+    // Клетки с висящим концом: соединением, на которое не отвечает сосед. Считаются
+    // полным проходом и обновляются вокруг повёрнутых узлов для событий хода
+    private BitSet disconnectedEnds;
 
     private double cellSize;
 
     public GameManager(Difficulty difficulty) {
+        this(difficulty, new Random().nextLong());
+    }
+
+    // Игра с заданным зерном генерации
+    public GameManager(Difficulty difficulty, long seed) {
+        this(difficulty, gridSizeFor(difficulty), seed);
+    }
+
+    // Квадратная доска произвольного размера (используется бенчмарками)
+    GameManager(Difficulty difficulty, int gridSize, long seed) {
+        this(difficulty, gridSize, gridSize, seed);
+    }
+
+    // Доска из rows строк и cols столбцов (стресс-тесты и пакетная генерация)
+    GameManager(Difficulty difficulty, int rows, int cols, long seed) {
+        if (rows < 1 || cols < 1 || rows * cols < 2) {
+            throw new IllegalArgumentException("Board must have at least two cells: " + rows + "x" + cols);
+        }
         this.difficulty = difficulty;
+        this.seed = seed;
+        this.generatorType = generatorFor(difficulty);
+        this.rows = rows;
+        this.cols = cols;
         this.lightBulbNodes = new ArrayList<>();
-        this.random = new Random();
+        this.powerNodes = new ArrayList<>();
+        this.random = new Random(seed);
+
+        // Инициализация сетки и упакованной модели доски
+        grid = new GameNode[rows][cols];
+        board = new BoardState(rows, cols);
+        powerFlowEngine = new PowerFlowEngine(board);
+        freeCells = new FreeCellIndex(rows * cols);
+        pathRouter = new PathRouter(board);
+        maxRouteLength = 2 * (rows + cols);
+        propagationStack = new int[rows * cols];
+        propagationVisited = new BitSet(rows * cols);
+        componentOf = new int[rows * cols];
+        componentSources = new int[rows * cols];
+        componentColors = new int[rows * cols];
+        poweredCells = new int[rows * cols];
+        previousSources = new int[rows * cols];
+        moveEvent = new PowerChangeEvent(rows * cols);
+        batchEvent = new PowerChangeEvent(rows * cols);
+        batchRotated = new BitSet(rows * cols);
+        disconnectedEnds = new BitSet(rows * cols);
+
+        // Устанавливаем базовый размер ячейки (будет изменен при инициализации игры)
+        cellSize = 50;
+    }
 
-        // Установка размера сетки в зависимости от сложности
+    // Размер сетки в зависимости от сложности
+    private static int gridSizeFor(Difficulty difficulty) {
         switch (difficulty) {
             case EASY:
-                gridSize = 5;
-                break;
+                return 5;
             case MEDIUM:
-                gridSize = 7;
-                break;
+                return 7;
             case HARD:
-                gridSize = 10;
-                break;
+                return 10;
+            default:
+                return 5;
+        }
+    }
+
+    // Генератор доски в зависимости от сложности
+    private static GeneratorType generatorFor(Difficulty difficulty) {
+        switch (difficulty) {
+            case HARD:
+                return GeneratorType.SPANNING_TREE;
+            case EASY:
+            case MEDIUM:
             default:
-                gridSize = 5;
+                return GeneratorType.PATH_ROUTING;
         }
+    }
 
-        // Инициализация сетки
-        grid = new GameNode[gridSize][gridSize];
+    public GeneratorType getGeneratorType() {
+        return generatorType;
+    }
 
-        // Устанавливаем базовый размер ячейки (будет изменен при инициализации игры)
-        cellSize = 50;
+    public void setGeneratorType(GeneratorType generatorType) {
+        this.generatorType = generatorType;
     }
 
     public double getCellSize() {
@@ -61,125 +190,159 @@ public class GameManager {
     public GameNode[][] getGrid() {
         return grid;
     }
+    public BoardState getBoardState() {
+        return board;
+    }
 
     public void generateGameBoard() {
-        placePowerNode();
-
-        boolean hasEmptyCell = true;
-
-        while (hasEmptyCell) {
-            // Проверяем, есть ли свободные клетки на поле
-            hasEmptyCell = false;
-            int emptyRow = -1;
-            int emptyCol = -1;
-
-            for (int row = 0; row < gridSize; row++) {
-                for (int col = 0; col < gridSize; col++) {
-                    if (grid[row][col] == null) {
-                        hasEmptyCell = true;
-                        emptyRow = row;
-                        emptyCol = col;
-                        break;
+        generating = true;
+        generationStats.reset();
+        beginBatch();
+        boolean committed = false;
+        try {
+            long phaseStart = System.nanoTime();
+            if (generatorType == GeneratorType.SPANNING_TREE) {
+                new SpanningTreeGenerator(this, random).generate();
+                phaseStart = generationStats.endPhase(GenerationStats.Phase.SPANNING_TREE, phaseStart);
+            } else {
+                routeGameBoard();
+                // Решение должно выигрывать игру: доска, где оно оставляет лампочку без питания
+                // или открытый конец провода, прокладывается заново
+                for (int attempt = 1; !solutionWins(); attempt++) {
+                    clearBoard();
+                    if (attempt < ROUTING_ATTEMPTS) {
+                        Diagnostics.log(Subsystem.GENERATION, "Решение доски не выигрывает игру, прокладываем маршруты заново");
+                        routeGameBoard();
+                    } else {
+                        Diagnostics.log(Subsystem.GENERATION, "Маршруты не дали выигрышного решения, строим остовное дерево");
+                        new SpanningTreeGenerator(this, random).generate();
                     }
                 }
-                if (hasEmptyCell) break;
+                phaseStart = System.nanoTime();
             }
-
-            // Если нашли пустую клетку, размещаем лампочку
-            if (hasEmptyCell) {
-                LightBulbNode node = placeLightBulbNode();
-                connectToPower(node);
+            solutionWon = solutionWins();
+            saveOriginalNodePositions();
+            shuffleAllNodes();
+            phaseStart = generationStats.endPhase(GenerationStats.Phase.SHUFFLE, phaseStart);
+            // Питание считается и сетка перерисовывается один раз при фиксации пакета
+            updatePowerFlow();
+            commitBatch();
+            committed = true;
+            resyncDisconnectedEnds();
+            generationStats.endPhase(GenerationStats.Phase.POWER, phaseStart);
+            generationStats.boardGenerated();
+            Diagnostics.log(Subsystem.GENERATION, () -> "Статистика генерации: " + generationStats);
+            generated = true;
+        } finally {
+            if (!committed) {
+                commitBatch();
             }
+            generating = false;
+        }
+    }
+
+    // Генерация прокладкой путей: лампочки ставятся в случайные свободные клетки
+    // и соединяются с источником, затем выполняются проходы исправления
+    private void routeGameBoard() {
+        long phaseStart = System.nanoTime();
+        placePowerNode();
+        phaseStart = generationStats.endPhase(GenerationStats.Phase.PLACEMENT, phaseStart);
+
+        // Пока на поле есть свободные клетки, размещаем лампочки
+        while (!freeCells.isEmpty()) {
+            LightBulbNode node = placeLightBulbNode();
+            phaseStart = generationStats.endPhase(GenerationStats.Phase.PLACEMENT, phaseStart);
+            connectToPower(node);
+            phaseStart = generationStats.endPhase(GenerationStats.Phase.ROUTING, phaseStart);
         }
         List<WireNode> wiresToReplace = checkDisconnectedWires();
         while (!wiresToReplace.isEmpty()) {
+            generationStats.wireRepairIteration(wiresToReplace.size());
             replaceDisconnectedWires(wiresToReplace);
             wiresToReplace = checkDisconnectedWires();
         }
+        phaseStart = generationStats.endPhase(GenerationStats.Phase.WIRE_REPAIR, phaseStart);
         checkAllLightBulbsConnected();
+        phaseStart = generationStats.endPhase(GenerationStats.Phase.BULB_REPAIR, phaseStart);
         finalizePowerNodeConnections();
-        saveOriginalNodePositions();
-        shuffleAllNodes();
-        updatePowerFlow();
+        generationStats.endPhase(GenerationStats.Phase.FINALIZE, phaseStart);
+    }
+
+    // Выигрывает ли игру доска в её текущем (ещё не перемешанном) состоянии
+    private boolean solutionWins() {
+        recomputePowerFlow();
+        return isGameWon();
+    }
+
+    // Убирает все узлы с доски перед повторной генерацией
+    private void clearBoard() {
+        for (int row = 0; row < rows; row++) {
+            for (int col = 0; col < cols; col++) {
+                grid[row][col] = null;
+            }
+        }
+        board.clearAll();
+        freeCells.fill();
+        lightBulbNodes.clear();
+        powerNodes.clear();
+        _powerNode = null;
     }
 
     private void shuffleAllNodes(){
 
-        for (int row = 0; row < gridSize; row++) {
-            for (int col = 0; col < gridSize; col++) {
+        for (int row = 0; row < rows; row++) {
+            for (int col = 0; col < cols; col++) {
                 if (grid[row][col] != null) {
                     GameNode node = grid[row][col];
                     if (node instanceof PowerNode) {
                         continue;
                     }
-                    int rotations = random.nextInt(4);
-                    for (int i = 0; i < rotations; i++) {
-                        node.rotate();
-                    }
+                    node.rotateBy(random.nextInt(4));
                 }
             }
         }
     }
 
+    // Запоминаем решённую доску: до перемешивания каждая клетка стоит в решении
     private void saveOriginalNodePositions() {
-        originalRotations.clear();
-        for (int row = 0; row < gridSize; row++) {
-            for (int col = 0; col < gridSize; col++) {
-                GameNode node = grid[row][col];
-                if (node != null) {
-                    String key = row + "," + col;
-                    originalRotations.put(key, node.getRotation());
-                }
-            }
+        solutionMasks = new int[board.size()];
+        clicksRemaining = new int[board.size()];
+        totalClicksRemaining = 0;
+        for (int index = 0; index < board.size(); index++) {
+            solutionMasks[index] = board.getMask(index);
         }
     }
 
-    public int getRotationsToOriginal(int row, int col) {
-        String key = row + "," + col;
-        GameNode node = grid[row][col];
-
-        if (node == null || !originalRotations.containsKey(key)) {
-            return 0;
+    // Наименьшее число щелчков (поворотов по часовой стрелке), после которого клетка
+    // совпадает с решением. Симметрия учитывается сама: прямой провод совпадает
+    // с решением уже через два щелчка, крестовина - сразу
+    private int clicksToSolution(int index) {
+        int mask = board.getMask(index);
+        for (int turns = 0; turns < 4; turns++) {
+            if (BoardState.rotate(mask, turns) == solutionMasks[index]) {
+                return turns;
+            }
         }
+        return 0;
+    }
 
-        int currentRotation = node.getRotation();
-        int originalRotation = originalRotations.get(key);
-
-        if (currentRotation == originalRotation) {
-            return 0;
+    // Пересчитываем оставшиеся щелчки повёрнутой клетки и общий итог
+    private void updateClicksRemaining(int index) {
+        if (solutionMasks == null) {
+            return;
         }
+        int clicks = clicksToSolution(index);
+        totalClicksRemaining += clicks - clicksRemaining[index];
+        clicksRemaining[index] = clicks;
+    }
 
-        // Вычисляем количество поворотов на 90 градусов (0-3)
-        int rotationsNeeded = (4 + (originalRotation - currentRotation) / 90) % 4;
-        // Проверяем, является ли узел проводом и применяем специальные правила
-        if (node instanceof WireNode) {
-            WireNode wire = (WireNode) node;
-            int connections = wire.getConnectedDirections().size();
-
-            // Для провода с 4 концами не нужно вращение
-            if (connections == 4) {
-                return 0;
-            }
-
-            // Для провода с 2 концами достаточно проверки на поворот на 180°
-            if (connections == 2) {
-                // Получаем список направлений
-                Set<WireNode.Direction> directions = wire.getConnectedDirections();
-
-                // Проверяем, является ли провод прямым (I-образным)
-                boolean isIType = (directions.contains(WireNode.Direction.UP) && directions.contains(WireNode.Direction.DOWN)) ||
-                        (directions.contains(WireNode.Direction.LEFT) && directions.contains(WireNode.Direction.RIGHT));
+    public int getRotationsToOriginal(int row, int col) {
+        return clicksRemaining == null ? 0 : clicksRemaining[board.index(row, col)];
+    }
 
-                if (isIType) {
-                    // Для I-образного провода важно только 2 состояния (0° и 90°)
-                    return rotationsNeeded % 2;
-                } else {
-                    // Для L-образного провода важны все 4 состояния
-                    return rotationsNeeded;
-                }
-            }
-        }
-        return rotationsNeeded;
+    // Наименьшее число щелчков, за которое доска приводится к сгенерированному решению
+    public int getTotalClicksRemaining() {
+        return totalClicksRemaining;
     }
 
     public void finalizePowerNodeConnections() {
@@ -187,80 +350,68 @@ public class GameManager {
         int powerCol = _powerNode.getCol();
 
         // Сохраняем активные направления источника питания
-        Set<WireNode.Direction> activeDirections = new HashSet<>();
+        int activeDirections = 0;
 
         // Проверяем все четыре возможных направления
         if (isValidConnection(powerRow - 1, powerCol)) { // Вверх
-            activeDirections.add(WireNode.Direction.UP);
+            activeDirections |= BoardState.UP;
         }
         if (isValidConnection(powerRow, powerCol + 1)) { // Вправо
-            activeDirections.add(WireNode.Direction.RIGHT);
+            activeDirections |= BoardState.RIGHT;
         }
         if (isValidConnection(powerRow + 1, powerCol)) { // Вниз
-            activeDirections.add(WireNode.Direction.DOWN);
+            activeDirections |= BoardState.DOWN;
         }
         if (isValidConnection(powerRow, powerCol - 1)) { // Влево
-            activeDirections.add(WireNode.Direction.LEFT);
+            activeDirections |= BoardState.LEFT;
         }
 
         // Устанавливаем активные направления в источнике питания
-        _powerNode.setActiveDirections(activeDirections);
+        board.setMask(_powerNode.getIndex(), activeDirections);
 
-        System.out.println("Активные направления источника питания: " + activeDirections);
+        Diagnostics.log(Subsystem.GENERATION, () -> "Активные направления источника питания: " + _powerNode.getActiveDirections());
         drawGrid(); // Перерисовываем сетку с обновленным источником
     }
 
     private boolean isValidConnection(int row, int col) {
         // Проверяем границы сетки
-        if (row < 0 || row >= gridSize || col < 0 || col >= gridSize) {
+        if (!board.inBounds(row, col)) {
             return false;
         }
 
-        GameNode node = grid[row][col];
-
-        // Если в клетке ничего нет - нет подключения
-        if (node == null) {
-            return false;
+        int index = board.index(row, col);
+        int kind = board.getKind(index);
+
+        // Определяем направление от источника к клетке
+        int directionFromPower;
+        if (row < _powerNode.getRow()) {
+            directionFromPower = WireNode.Direction.UP.ordinal();
+        } else if (row > _powerNode.getRow()) {
+            directionFromPower = WireNode.Direction.DOWN.ordinal();
+        } else if (col < _powerNode.getCol()) {
+            directionFromPower = WireNode.Direction.LEFT.ordinal();
+        } else {
+            directionFromPower = WireNode.Direction.RIGHT.ordinal();
         }
 
         // Если это провод - проверяем, принимает ли он энергию с этой стороны
-        if (node instanceof WireNode) {
-            WireNode wire = (WireNode) node;
-            WireNode.Direction directionFromPower;
-
-            // Определяем направление от источника к проводу
-            if (row < _powerNode.getRow()) {
-                directionFromPower = WireNode.Direction.UP;
-            } else if (row > _powerNode.getRow()) {
-                directionFromPower = WireNode.Direction.DOWN;
-            } else if (col < _powerNode.getCol()) {
-                directionFromPower = WireNode.Direction.LEFT;
-            } else {
-                directionFromPower = WireNode.Direction.RIGHT;
-            }
-
-            // Проверяем, принимает ли провод энергию от источника
-            return wire.isDirectionConnected(directionFromPower.getOpposite());
+        if (kind == BoardState.WIRE) {
+            return board.hasConnection(index, BoardState.opposite(directionFromPower));
         }
 
-        // Если это лампочка - проверяем, смотрит ли она на источник
-        if (node instanceof LightBulbNode) {
-            LightBulbNode bulb = (LightBulbNode) node;
-            WireNode.Direction bulbDirection = WireNode.Direction.fromDegrees(bulb.getRotation());
-
-            // Направление от источника к лампочке должно совпадать с направлением лампочки
-            if (row < _powerNode.getRow() && bulbDirection == WireNode.Direction.UP) return true;
-            if (row > _powerNode.getRow() && bulbDirection == WireNode.Direction.DOWN) return true;
-            if (col < _powerNode.getCol() && bulbDirection == WireNode.Direction.LEFT) return true;
-            if (col > _powerNode.getCol() && bulbDirection == WireNode.Direction.RIGHT) return true;
+        // Если это лампочка - она должна быть повёрнута к источнику
+        if (kind == BoardState.BULB) {
+            return board.hasConnection(index, BoardState.opposite(directionFromPower));
         }
 
+        // Если в клетке ничего нет - нет подключения
         return false;
     }
 
     public boolean checkAllLightBulbsConnected() {
-        // Сначала распространяем энергию от источника питания
-        updatePowerFlow();
+        // Сначала распространяем энергию от источника питания (нужно актуальное состояние,
+        // поэтому пересчёт выполняется сразу, даже внутри пакета)
+        recomputePowerFlow();
 
         boolean allConnected = true;
         List<LightBulbNode> disconnectedBulbs = new ArrayList<>();
@@ -268,7 +419,7 @@ public class GameManager {
         // Проверяем, все ли лампочки получают питание
         for (LightBulbNode lightBulb : lightBulbNodes) {
             if (!lightBulb.isPowered()) {
-                System.out.println("Найдена неподключенная лампочка в [" +
+                Diagnostics.log(Subsystem.REPAIR, () -> "Найдена неподключенная лампочка в [" +
                         lightBulb.getRow() + "," + lightBulb.getCol() + "]");
                 lightBulb.setDisconnected(true);
                 disconnectedBulbs.add(lightBulb);
@@ -280,29 +431,36 @@ public class GameManager {
 
         // Пытаемся подключить неподключенные лампочки
         if (!disconnectedBulbs.isEmpty()) {
-            System.out.println("Пытаемся подключить " + disconnectedBulbs.size() + " неподключенных лампочек");
-
-            // Сначала пробуем стандартное подключение
-            for (LightBulbNode lightBulb : new ArrayList<>(disconnectedBulbs)) {
-                connectToPower(lightBulb);
-
-                // Проверяем, удалось ли подключить
-                updatePowerFlow();
-                if (lightBulb.isPowered()) {
-                    lightBulb.setDisconnected(false);
-                    disconnectedBulbs.remove(lightBulb);
-                    System.out.println("Успешно подключена лампочка в [" +
-                            lightBulb.getRow() + "," + lightBulb.getCol() + "]");
+            Diagnostics.log(Subsystem.REPAIR, () -> "Пытаемся подключить " + disconnectedBulbs.size() + " неподключенных лампочек");
+
+            // Подключённая лампочка может стать питающим соседом для другой, поэтому
+            // проходы повторяются, пока они подключают хотя бы одну лампочку
+            int remaining;
+            do {
+                remaining = disconnectedBulbs.size();
+
+                // Сначала пробуем стандартное подключение
+                for (LightBulbNode lightBulb : new ArrayList<>(disconnectedBulbs)) {
+                    generationStats.bulbRepair();
+                    connectToPower(lightBulb);
+
+                    // Проверяем, удалось ли подключить (connectToPower запитывает маршрут обходом от источника)
+                    if (lightBulb.isPowered()) {
+                        lightBulb.setDisconnected(false);
+                        disconnectedBulbs.remove(lightBulb);
+                        Diagnostics.log(Subsystem.REPAIR, () -> "Успешно подключена лампочка в [" +
+                                lightBulb.getRow() + "," + lightBulb.getCol() + "]");
+                    }
                 }
-            }
 
-            // Если остались неподключенные лампочки, пробуем заменить соседние лампочки на провода
-            if (!disconnectedBulbs.isEmpty()) {
-                tryConnectWithNeighbors(disconnectedBulbs);
-            }
+                // Если остались неподключенные лампочки, пробуем заменить соседние лампочки на провода
+                if (!disconnectedBulbs.isEmpty()) {
+                    tryConnectWithNeighbors(disconnectedBulbs);
+                }
+            } while (!disconnectedBulbs.isEmpty() && disconnectedBulbs.size() < remaining);
 
             // Перепроверяем, все ли лампочки теперь подключены
-            updatePowerFlow();
+            recomputePowerFlow();
             allConnected = true;
             for (LightBulbNode lightBulb : lightBulbNodes) {
                 if (!lightBulb.isPowered()) {
@@ -313,8 +471,9 @@ public class GameManager {
         }
 
         if (allConnected) {
-            System.out.println("Все лампочки подключены к источнику питания");
+            Diagnostics.log(Subsystem.REPAIR, "Все лампочки подключены к источнику питания");
         }
+        drawGrid();
 
         return allConnected;
     }
@@ -338,7 +497,7 @@ public class GameManager {
                 }
 
                 // Проверяем границы сетки
-                if (neighborRow < 0 || neighborRow >= gridSize || neighborCol < 0 || neighborCol >= gridSize) {
+                if (!board.inBounds(neighborRow, neighborCol)) {
                     continue;
                 }
 
@@ -346,12 +505,15 @@ public class GameManager {
 
                 // Если сосед - подключенная лампочка
                 if (neighbor instanceof LightBulbNode && neighbor.isPowered()) {
-                    System.out.println("Найдена подключенная лампочка-сосед в [" +
-                            neighborRow + "," + neighborCol + "]");
+                    if (Diagnostics.isEnabled(Subsystem.REPAIR)) {
+                        Diagnostics.log(Subsystem.REPAIR, "Найдена подключенная лампочка-сосед в [" +
+                                neighborRow + "," + neighborCol + "]");
+                    }
 
                     // Заменяем подключенную лампочку на провод
                     LightBulbNode connectedBulb = (LightBulbNode) grid[neighborRow][neighborCol];
                     lightBulbNodes.remove(connectedBulb);
+                    generationStats.bulbReplaced();
 
                     // Определяем направление подключенной лампочки
                     WireNode.Direction connectedBulbDir = WireNode.Direction.fromDegrees(connectedBulb.getRotation());
@@ -370,40 +532,42 @@ public class GameManager {
                     grid[neighborRow][neighborCol] = wireNode;
 
                     // Поворачиваем неподключенную лампочку к новому проводу
-                    while (WireNode.Direction.fromDegrees(disconnectedBulb.getRotation()) != dir) {
-                        disconnectedBulb.rotate();
-                    }
-
-                    // Обновляем поток энергии
-                    updatePowerFlow();
+                    disconnectedBulb.rotateTo(dir);
 
-                    // Проверяем, подключилась ли лампочка
-                    if (disconnectedBulb.isPowered()) {
-                        System.out.println("Успешно подключили лампочку в [" + row + "," + col +
-                                "] заменой соседней лампочки на провод");
-                        disconnectedBulb.setDisconnected(false);
-                        connected = true;
-                        break;
+                    // Провод питается только если заменённую лампочку питал сосед с той стороны,
+                    // куда она смотрела; поэтому питание пересчитывается сразу (даже внутри
+                    // пакета) и лампочка считается подключённой лишь после проверки
+                    recomputePowerFlow();
+                    if (!disconnectedBulb.isPowered()) {
+                        continue;
                     }
+                    disconnectedBulb.setDisconnected(false);
+                    disconnectedBulbs.remove(disconnectedBulb);
+                    Diagnostics.log(Subsystem.REPAIR, () -> "Успешно подключили лампочку в [" + row + "," + col +
+                            "] заменой соседней лампочки на провод");
+                    connected = true;
+                    break;
                 }
             }
 
             if (!connected) {
-                System.out.println("Не удалось подключить лампочку в [" + row + "," + col +
+                Diagnostics.log(Subsystem.REPAIR, () -> "Не удалось подключить лампочку в [" + row + "," + col +
                         "] через соседние лампочки");
             }
         }
     }
 
     private void connectToPower(LightBulbNode lightBulb) {
-        System.out.println("\n===== НАЧИНАЕМ ПОДКЛЮЧЕНИЕ ЛАМПОЧКИ К ИСТОЧНИКУ =====");
-        System.out.println("Лампочка: [" + lightBulb.getRow() + "," + lightBulb.getCol() +
+        Diagnostics.log(Subsystem.ROUTING, "\n===== НАЧИНАЕМ ПОДКЛЮЧЕНИЕ ЛАМПОЧКИ К ИСТОЧНИКУ =====");
+        Diagnostics.log(Subsystem.ROUTING, () -> "Лампочка: [" + lightBulb.getRow() + "," + lightBulb.getCol() +
                 "], поворот: " + lightBulb.getRotation());
-        System.out.println("Источник: [" + _powerNode.getRow() + "," + _powerNode.getCol() + "]");
+        Diagnostics.log(Subsystem.ROUTING, () -> "Источник: [" + _powerNode.getRow() + "," + _powerNode.getCol() + "]");
 
         // Получаем направление выхода из лампочки
         WireNode.Direction bulbDirection = WireNode.Direction.fromDegrees(lightBulb.getRotation());
-        System.out.println("Направление лампочки: " + bulbDirection);
+        if (Diagnostics.isEnabled(Subsystem.ROUTING)) {
+            Diagnostics.log(Subsystem.ROUTING, "Направление лампочки: " + bulbDirection);
+        }
 
         // Проверяем все возможные ориентации лампочки, пытаясь найти направление, в котором можно подключить к источнику
         int originalRotation = lightBulb.getRotation();
@@ -426,194 +590,160 @@ public class GameManager {
                 case LEFT: nextCol--; break;
             }
 
-            System.out.println("Пытаемся разместить первый провод в [" + nextRow + "," + nextCol + "]");
+            if (Diagnostics.isEnabled(Subsystem.ROUTING)) {
+                Diagnostics.log(Subsystem.ROUTING, "Пытаемся разместить первый провод в [" + nextRow + "," + nextCol + "]");
+            }
 
             // Проверка границ и занятости клеток
-            if (nextRow < 0 || nextRow >= gridSize || nextCol < 0 || nextCol >= gridSize) {
-                System.out.println("Невозможно построить путь: за пределами сетки");
+            if (!board.inBounds(nextRow, nextCol)) {
+                Diagnostics.log(Subsystem.ROUTING, "Невозможно построить путь: за пределами сетки");
                 lightBulb.rotate(); // Поворачиваем и пробуем следующую ориентацию
                 continue;
             }
 
             // Если клетка уже занята (не проводом), пробуем другую ориентацию
             if (grid[nextRow][nextCol] != null && !(grid[nextRow][nextCol] instanceof WireNode)) {
-                System.out.println("Невозможно построить путь: клетка занята " + grid[nextRow][nextCol].getClass().getSimpleName());
+                if (Diagnostics.isEnabled(Subsystem.ROUTING)) {
+                    Diagnostics.log(Subsystem.ROUTING, "Невозможно построить путь: клетка занята " + grid[nextRow][nextCol].getClass().getSimpleName());
+                }
                 lightBulb.rotate(); // Поворачиваем и пробуем следующую ориентацию
                 continue;
             }
 
-            // Рекурсивно строим путь от первой клетки
-            boolean pathBuilt = buildPath(nextRow, nextCol, bulbDirection.getOpposite(),
-                    _powerNode.getRow(), _powerNode.getCol(), new boolean[gridSize][gridSize]);
+            // Ищем кратчайший путь от первой клетки и только затем прокладываем провода
+            int routeLength = pathRouter.route(board.index(nextRow, nextCol), maxRouteLength, random);
+            generationStats.routeSearch(pathRouter.getVisitedCount(), routeLength >= 0);
+            boolean pathBuilt = routeLength >= 0;
+            if (pathBuilt) {
+                commitRoute(bulbDirection.ordinal());
+            }
 
             if (pathBuilt) {
                 // Путь построен успешно
                 connectionSuccess = true;
-                System.out.println("Построен успешный путь от лампочки к источнику!");
+                Diagnostics.log(Subsystem.ROUTING, "Построен успешный путь от лампочки к источнику!");
                 break;
             } else {
-                System.out.println("Не удалось построить путь в этом направлении. Пробуем другое.");
+                Diagnostics.log(Subsystem.ROUTING, "Не удалось построить путь в этом направлении. Пробуем другое.");
                 lightBulb.rotate(); // Поворачиваем и пробуем следующую ориентацию
             }
         }
 
         // Если после перебора всех ориентаций, подключение не удалось
         if (!connectionSuccess) {
-            System.out.println("Не удалось подключить лампочку к источнику ни в одном из направлений.");
+            Diagnostics.log(Subsystem.ROUTING, "Не удалось подключить лампочку к источнику ни в одном из направлений.");
             // Восстанавливаем исходную ориентацию
-            while (lightBulb.getRotation() != originalRotation) {
-                lightBulb.rotate();
-            }
+            lightBulb.rotateTo(WireNode.Direction.fromDegrees(originalRotation));
         } else {
-            // Обновляем поток энергии
-            updatePowerFlow();
+            // Маршрут заканчивается в запитанной клетке: энергия растекается из неё по новым
+            // соединениям. Новые соединения не могут отключить другие клетки, поэтому
+            // полный пересчёт не нужен; запитана ли лампочка, решает сам обход
+            floodFrom(pathRouter.getPathCell(pathRouter.getPathLength() - 1));
         }
 
-        System.out.println("===== ЗАВЕРШЕНО ПОДКЛЮЧЕНИЕ ЛАМПОЧКИ К ИСТОЧНИКУ =====\n");
+        Diagnostics.log(Subsystem.ROUTING, "===== ЗАВЕРШЕНО ПОДКЛЮЧЕНИЕ ЛАМПОЧКИ К ИСТОЧНИКУ =====\n");
     }
 
-    // Рекурсивное построение пути от текущей клетки к цели
-    private boolean buildPath(int row, int col, WireNode.Direction fromDirection,
-                            int targetRow, int targetCol, boolean[][] visited) {
-
-        System.out.println("Строим путь из [" + row + "," + col + "] с направления " +
-                          fromDirection + " к [" + targetRow + "," + targetCol + "]");
-
-        // Проверка границ и посещённых клеток
-        if (row < 0 || row >= gridSize || col < 0 || col >= gridSize || visited[row][col]) {
-            System.out.println("  → За пределами сетки или клетка уже посещена");
-            return false;
-        }
-
-        // Помечаем клетку как посещённую
-        visited[row][col] = true;
-
-        // Проверка достижения цели (источника питания)
-        if (row == targetRow && col == targetCol) {
-            System.out.println("  → Достигли источника питания!");
-            return true;
-        }
-
-        // Проверка клетки - пустая или провод
-        WireNode wireNode;
-        if (grid[row][col] == null) {
-            System.out.println("  → Создаём новый провод в [" + row + "," + col + "]");
-            wireNode = new WireNode(row, col);
-            wireNode.setGameManager(this);
-            grid[row][col] = wireNode;
-        } else if (grid[row][col] instanceof WireNode) {
-            System.out.println("  → Используем существующий провод в [" + row + "," + col + "]");
-            wireNode = (WireNode) grid[row][col];
-        } else {
-            System.out.println("  → Клетка занята другим объектом, не можем продолжить");
-            return false;
-        }
-
-        // Добавляем соединение со стороны, откуда пришли
-        wireNode.addConnection(fromDirection);
-        System.out.println("  → Добавили соединение " + fromDirection);
-
-        // Вычисляем дельты для определения направления
-        int rowDelta = targetRow - row;
-        int colDelta = targetCol - col;
-
-        // Список направлений для проверки в порядке приоритета
-        List<WireNode.Direction> directionsToTry = new ArrayList<>();
-
-        // Приоритизируем направления в зависимости от относительного положения цели
-        if (Math.abs(rowDelta) > Math.abs(colDelta)) {
-            // Приоритет вертикального движения
-            if (rowDelta < 0) directionsToTry.add(WireNode.Direction.UP);
-            else if (rowDelta > 0) directionsToTry.add(WireNode.Direction.DOWN);
-
-            if (colDelta < 0) directionsToTry.add(WireNode.Direction.LEFT);
-            else if (colDelta > 0) directionsToTry.add(WireNode.Direction.RIGHT);
-        } else {
-            // Приоритет горизонтального движения
-            if (colDelta < 0) directionsToTry.add(WireNode.Direction.LEFT);
-            else if (colDelta > 0) directionsToTry.add(WireNode.Direction.RIGHT);
-
-            if (rowDelta < 0) directionsToTry.add(WireNode.Direction.UP);
-            else if (rowDelta > 0) directionsToTry.add(WireNode.Direction.DOWN);
-        }
-
-        // Добавляем оставшиеся направления, если они ещё не в списке
-        for (WireNode.Direction dir : WireNode.Direction.values()) {
-            if (!directionsToTry.contains(dir) && dir != fromDirection) {
-                directionsToTry.add(dir);
+    // Запитывает клетки, до которых по соединениям доходит энергия из запитанной клетки.
+    // Клетки получают маски источников начальной клетки
+    private void floodFrom(int start) {
+        int sources = board.getSources(start);
+        int top = 0;
+        propagationStack[top++] = start;
+        while (top > 0) {
+            int index = propagationStack[--top];
+            int mask = board.outputMask(index);
+            for (int dir = 0; dir < 4; dir++) {
+                if ((mask & (1 << dir)) == 0) {
+                    continue;
+                }
+                int next = board.neighbour(index, dir);
+                if (next < 0 || board.isPowered(next) || !board.acceptsFrom(next, BoardState.opposite(dir))) {
+                    continue;
+                }
+                board.setPowered(next, true);
+                board.setSources(next, sources);
+                if (board.getKind(next) == BoardState.WIRE) {
+                    propagationStack[top++] = next;
+                }
             }
         }
+    }
 
-        // Проходим по направлениям в порядке приоритета
-        for (WireNode.Direction nextDirection : directionsToTry) {
-            // Пропускаем направление, откуда пришли
-            if (nextDirection == fromDirection) {
-                continue;
+    // Прокладывает найденный маршрут: каждая клетка соединяется с предыдущей и следующей.
+    // Пустые клетки становятся проводами, к проводу в конце маршрута добавляется ответвление.
+    private void commitRoute(int bulbDir) {
+        int length = pathRouter.getPathLength();
+        int fromDir = BoardState.opposite(bulbDir);
+        for (int i = 0; i < length; i++) {
+            int index = pathRouter.getPathCell(i);
+            if (board.getKind(index) == BoardState.POWER) {
+                // Источник во время генерации соединён во все стороны
+                break;
             }
 
-            System.out.println("  → Пробуем направление: " + nextDirection);
-
-            // Рассчитываем следующую позицию
-            int nextRow = row;
-            int nextCol = col;
-            switch (nextDirection) {
-                case UP: nextRow--; break;
-                case RIGHT: nextCol++; break;
-                case DOWN: nextRow++; break;
-                case LEFT: nextCol--; break;
+            int row = board.row(index);
+            int col = board.col(index);
+            if (grid[row][col] == null) {
+                WireNode wireNode = new WireNode(row, col);
+                wireNode.setGameManager(this);
+                grid[row][col] = wireNode;
+                freeCells.remove(index);
             }
-
-            // Рекурсивно строим путь от следующей клетки
-            if (buildPath(nextRow, nextCol, nextDirection.getOpposite(), targetRow, targetCol, visited)) {
-                // Путь найден, добавляем соединение с этой стороны
-                wireNode.addConnection(nextDirection);
-                System.out.println("  → Успешно! Добавляем соединение " + nextDirection + " к [" + row + "," + col + "]");
-                return true;
+            board.addConnection(index, fromDir);
+            if (i + 1 < length) {
+                int stepDir = pathRouter.getStepDirection(i + 1);
+                board.addConnection(index, stepDir);
+                fromDir = BoardState.opposite(stepDir);
             }
         }
-
-        // Если не удалось построить путь ни в одном направлении
-        System.out.println("  → Не удалось построить путь из [" + row + "," + col + "], возвращаемся");
-
-        // Если это провод, который мы создали, но путь не нашли - удаляем провод
-        if (grid[row][col] == wireNode && wireNode.getConnectedDirections().size() <= 1) {
-            System.out.println("  → Удаляем бесполезный провод из [" + row + "," + col + "]");
-            grid[row][col] = null;
-        }
-
-        return false;
+        Diagnostics.log(Subsystem.ROUTING, () -> "  → Проложен маршрут из " + length + " клеток");
     }
-    private void placePowerNode() {
-        int row = random.nextInt(gridSize);
-        int col = random.nextInt(gridSize);
 
-        // Ensure the position is empty
-        while (grid[row][col] != null) {
-            row = random.nextInt(gridSize);
-            col = random.nextInt(gridSize);
-        }
+    private void placePowerNode() {
+        // Случайная свободная клетка
+        int index = freeCells.random(random);
+        int row = board.row(index);
+        int col = board.col(index);
 
         PowerNode powerNode = new PowerNode(row, col);
         powerNode.setGameManager(this);
         grid[row][col] = powerNode;
+        freeCells.remove(index);
         _powerNode = powerNode;
+        powerNodes.add(powerNode);
     }
 
-    private LightBulbNode placeLightBulbNode() {
-    int row = random.nextInt(gridSize);
-    int col = random.nextInt(gridSize);
-
-    // Ensure the position is empty
-    while (grid[row][col] != null) {
-        row = random.nextInt(gridSize);
-        col = random.nextInt(gridSize);
+    // Размещает готовый узел на доске без генерации (используется бенчмарками)
+    void placeNode(GameNode node) {
+        node.setGameManager(this);
+        grid[node.getRow()][node.getCol()] = node;
+        freeCells.remove(board.index(node.getRow(), node.getCol()));
+        if (node instanceof PowerNode) {
+            if (powerNodes.size() == Integer.SIZE) {
+                throw new IllegalStateException("Too many power sources (max " + Integer.SIZE + ")");
+            }
+            if (_powerNode == null) {
+                _powerNode = (PowerNode) node;
+            }
+            powerNodes.add((PowerNode) node);
+        } else if (node instanceof LightBulbNode) {
+            lightBulbNodes.add((LightBulbNode) node);
+        }
     }
 
+    private LightBulbNode placeLightBulbNode() {
+    // Random free cell
+    int index = freeCells.random(random);
+    int row = board.row(index);
+    int col = board.col(index);
+    generationStats.placementAttempt();
+
     LightBulbNode lightBulbNode = new LightBulbNode(row, col);
     lightBulbNode.setGameManager(this);
     grid[row][col] = lightBulbNode;
-    int rotations = random.nextInt(4); // 0-3 ротаций (0, 90, 180, 270 градусов)
-    for(int i = 0; i < rotations; i++) lightBulbNode.rotate();
+    freeCells.remove(index);
+    lightBulbNode.rotateBy(random.nextInt(4)); // 0-3 ротаций (0, 90, 180, 270 градусов)
 
     // Проверяем, смотрит ли лампочка за пределы поля, если да - поворачиваем
     while (isFacingBounds(lightBulbNode)) {
@@ -636,9 +766,9 @@ public class GameManager {
         case 0: // Вверх
             return row == 0;
         case 90: // Вправо
-            return col == gridSize - 1;
+            return col == cols - 1;
         case 180: // Вниз
-            return row == gridSize - 1;
+            return row == rows - 1;
         case 270: // Влево
             return col == 0;
         default:
@@ -648,19 +778,20 @@ public class GameManager {
 
     public void initializeGame(Pane gamePane) {
         // Рассчитываем оптимальный размер ячейки
-        double windowSize = Math.min(gamePane.getPrefWidth(), gamePane.getPrefHeight());
-        cellSize = windowSize / gridSize;
+        cellSize = Math.min(gamePane.getPrefWidth() / cols, gamePane.getPrefHeight() / rows);
 
         // Создаем canvas нужного размера
-        double canvasSize = gridSize * cellSize;
-        gameCanvas = new Canvas(canvasSize, canvasSize);
+        gameCanvas = new Canvas(cols * cellSize, rows * cellSize);
         gc = gameCanvas.getGraphicsContext2D();
+        renderer = new GridRenderer(this, gc);
 
         // Добавляем canvas на игровую панель
         gamePane.getChildren().add(gameCanvas);
 
-        // Создаем игровую доску
-        generateGameBoard();
+        // Создаем игровую доску, если она не была подготовлена заранее
+        if (!generated) {
+            generateGameBoard();
+        }
 
         // Отрисовываем начальное состояние
         drawGrid();
@@ -669,18 +800,60 @@ public class GameManager {
         setupClickHandlers(gamePane);
     }
 
+    // Запрашивает перерисовку изменившихся клеток: рисуются только клетки, помеченные
+    // доской как изменённые, и не чаще одного раза за кадр JavaFX
     private void drawGrid() {
-        // Clear the canvas
-        gc.clearRect(0, 0, gameCanvas.getWidth(), gameCanvas.getHeight());
+        if (batchDepth > 0) {
+            batchRedrawPending = true;
+            return;
+        }
+        if (renderer != null) {
+            renderer.requestRepaint();
+        }
+    }
 
-        // Draw each node
-        for (int row = 0; row < gridSize; row++) {
-            for (int col = 0; col < gridSize; col++) {
-                if (grid[row][col] != null) {
-                    // Метод draw класса узла должен учитывать его состояние
-                    grid[row][col].draw(gc);
-                }
+    public GridRenderer getRenderer() {
+        return renderer;
+    }
+
+    public GameLogger getGameLogger() {
+        return gameLogger;
+    }
+
+    // Журнал ходов подписывается на события ходов
+    public void setGameLogger(GameLogger gameLogger) {
+        if (this.gameLogger != null) {
+            removePowerChangeListener(this.gameLogger);
+        }
+        this.gameLogger = gameLogger;
+        if (gameLogger != null) {
+            addPowerChangeListener(gameLogger);
+        }
+    }
+
+    public void addPowerChangeListener(PowerChangeListener listener) {
+        powerChangeListeners.add(listener);
+    }
+
+    public void removePowerChangeListener(PowerChangeListener listener) {
+        powerChangeListeners.remove(listener);
+    }
+
+    // Запоминает поворот узла до хода для события хода (повороты при генерации не учитываются)
+    public void logNodeRotation(GameNode node, int prevRotation) {
+        updateClicksRemaining(node.getIndex());
+        if (batchDepth > 0) {
+            // В пакете запоминается поворот узла до пакета
+            batchPowerPending = true;
+            if (!generating && !batchRotated.get(node.getIndex())) {
+                batchRotated.set(node.getIndex());
+                batchEvent.addRotation(node, prevRotation);
             }
+            return;
+        }
+        if (!generating && lastRotatedNode != node) {
+            lastRotatedNode = node;
+            lastPreviousRotation = prevRotation;
         }
     }
 
@@ -688,22 +861,18 @@ public class GameManager {
 
     private void setupClickHandlers(Pane gamePane) {
         gameCanvas.setOnMouseClicked(event -> {
-            double cellSize = gameCanvas.getWidth() / gridSize;
             int col = (int) (event.getX() / cellSize);
             int row = (int) (event.getY() / cellSize);
 
             // Check if click is within grid bounds
-            if (row >= 0 && row < gridSize && col >= 0 && col < gridSize) {
+            if (event.getX() >= 0 && event.getY() >= 0 && board.inBounds(row, col)) {
                 GameNode node = grid[row][col];
                 if (node != null) {
                     // Rotate the node
                     node.rotate();
 
-                    // Redraw the grid
-                    drawGrid();
-
-                    // Update power flow
-                    updatePowerFlow();
+                    // Update power flow around the rotated node and redraw the grid
+                    updatePowerFlowAfterRotation(node);
                 }
             }
         });
@@ -714,82 +883,65 @@ public class GameManager {
         List<WireNode> disconnectedWires = new ArrayList<>();
 
         // Сбрасываем состояние проводов
-        for (int row = 0; row < gridSize; row++) {
-            for (int col = 0; col < gridSize; col++) {
-                if (grid[row][col] instanceof WireNode) {
-                    ((WireNode) grid[row][col]).setDisconnectedEnd(false);
-                }
+        for (int index = 0; index < board.size(); index++) {
+            if (board.getKind(index) == BoardState.WIRE) {
+                board.setDisconnected(index, false);
             }
         }
 
-        for (int row = 0; row < gridSize; row++) {
-            for (int col = 0; col < gridSize; col++) {
-                if (grid[row][col] instanceof WireNode) {
-                    WireNode wire = (WireNode) grid[row][col];
-                    Set<WireNode.Direction> validConnections = new HashSet<>();
-                    Set<WireNode.Direction> invalidConnections = new HashSet<>();
-
-                    // Проверяем каждое направление соединения
-                    for (WireNode.Direction dir : wire.getConnectedDirections()) {
-                        int nextRow = row;
-                        int nextCol = col;
+        for (int index = 0; index < board.size(); index++) {
+            if (board.getKind(index) != BoardState.WIRE) {
+                continue;
+            }
+            int validConnections = 0;
+            int invalidConnections = 0;
+            int mask = board.getMask(index);
 
-                        switch (dir) {
-                            case UP: nextRow--; break;
-                            case RIGHT: nextCol++; break;
-                            case DOWN: nextRow++; break;
-                            case LEFT: nextCol--; break;
-                        }
+            // Проверяем каждое направление соединения
+            for (int dir = 0; dir < 4; dir++) {
+                if ((mask & (1 << dir)) == 0) {
+                    continue;
+                }
 
-                        boolean validConnection = false;
-
-                        if (nextRow >= 0 && nextRow < gridSize && nextCol >= 0 && nextCol < gridSize) {
-                            GameNode nextNode = grid[nextRow][nextCol];
-
-                            if (nextNode != null) {
-                                if (nextNode instanceof WireNode) {
-                                    WireNode nextWire = (WireNode) nextNode;
-                                    if (nextWire.isDirectionConnected(dir.getOpposite())) {
-                                        validConnection = true;
-                                    }
-                                } else if (nextNode instanceof PowerNode) {
-                                    validConnection = true;
-                                } else if (nextNode instanceof LightBulbNode) {
-                                    if (dir.getOpposite() == WireNode.Direction.fromDegrees(nextNode.getRotation())) {
-                                        validConnection = true;
-                                    }
-                                }
-                            }
-                        }
+                // Соединение валидно, если соседняя клетка принимает его с противоположной стороны
+                // (источник питания принимает соединения с любой стороны)
+                int next = board.neighbour(index, dir);
+                if (next >= 0 && board.acceptsFrom(next, BoardState.opposite(dir))) {
+                    validConnections |= 1 << dir;
+                } else {
+                    invalidConnections |= 1 << dir;
+                }
+            }
 
-                        if (validConnection) {
-                            validConnections.add(dir);
-                        } else {
-                            invalidConnections.add(dir);
-                        }
-                    }
+            int row = board.row(index);
+            int col = board.col(index);
 
-                    // Если у провода есть хотя бы 2 валидных соединения, удаляем только невалидные
-                    if (validConnections.size() >= 2) {
-                        // Удаляем невалидные соединения
-                        for (WireNode.Direction dir : invalidConnections) {
-                            System.out.println("Удаляем невалидное соединение " + dir +
+            // Если у провода есть хотя бы 2 валидных соединения, удаляем только невалидные
+            if (Integer.bitCount(validConnections) >= 2) {
+                // Удаляем невалидные соединения
+                for (int dir = 0; dir < 4; dir++) {
+                    if ((invalidConnections & (1 << dir)) != 0) {
+                        if (Diagnostics.isEnabled(Subsystem.REPAIR)) {
+                            Diagnostics.log(Subsystem.REPAIR, "Удаляем невалидное соединение " + DIRECTIONS[dir] +
                                     " у провода в [" + row + "," + col + "]");
-                            wire.removeConnection(dir);
                         }
-                    }
-                    // Если меньше 2 валидных соединений, но есть хотя бы одно невалидное
-                    else if (!invalidConnections.isEmpty()) {
-                        wire.setDisconnectedEnd(true);
-                        disconnectedWires.add(wire);
-                        System.out.println("Найден отсоединенный провод в [" + row + "," + col + "] - " +
-                                validConnections.size() + " валидных, " + invalidConnections.size() + " невалидных");
+                        board.removeConnection(index, dir);
                     }
                 }
             }
+            // Если меньше 2 валидных соединений, но есть хотя бы одно невалидное
+            else if (invalidConnections != 0) {
+                board.setDisconnected(index, true);
+                disconnectedWires.add((WireNode) grid[row][col]);
+                if (Diagnostics.isEnabled(Subsystem.REPAIR)) {
+                    Diagnostics.log(Subsystem.REPAIR, "Найден отсоединенный провод в [" + row + "," + col + "] - " +
+                            Integer.bitCount(validConnections) + " валидных, " +
+                            Integer.bitCount(invalidConnections) + " невалидных");
+                }
+            }
         }
 
-        System.out.println("Найдено отсоединенных проводов: " + disconnectedWires.size());
+        Diagnostics.log(Subsystem.REPAIR, () -> "Найдено отсоединенных проводов: " + disconnectedWires.size());
         return disconnectedWires;
     }
 
@@ -827,7 +979,7 @@ public class GameManager {
             }
 
             // Проверяем границы
-            if (nextRow < 0 || nextRow >= gridSize || nextCol < 0 || nextCol >= gridSize) {
+            if (!board.inBounds(nextRow, nextCol)) {
                 continue;
             }
 
@@ -839,19 +991,14 @@ public class GameManager {
                         nextNode instanceof PowerNode) {
 
                     // Поворачиваем лампочку так, чтобы она "смотрела" в противоположном направлении
-                    while (WireNode.Direction.fromDegrees(lightBulb.getRotation()) != dir) {
-                        lightBulb.rotate();
-                    }
+                    lightBulb.rotateTo(dir);
                     return;
                 }
             }
         }
 
         // Если не нашли подходящее направление, устанавливаем случайную ориентацию
-        int randomRotations = random.nextInt(4);
-        for (int i = 0; i < randomRotations; i++) {
-            lightBulb.rotate();
-        }
+        lightBulb.rotateBy(random.nextInt(4));
 
         // Проверяем, не смотрит ли лампочка за пределы поля
         while (isFacingBounds(lightBulb)) {
@@ -863,165 +1010,362 @@ public class GameManager {
         connectToPower(lightBulb);
     }
 
+    // Пересчитывает питание всей доски и перерисовывает сетку. Внутри пакета пересчёт
+    // откладывается до фиксации, а результат относится к состоянию до пакета
     public boolean updatePowerFlow() {
-        // Сбрасываем питание для всех узлов кроме PowerNode
-        for (int row = 0; row < gridSize; row++) {
-            for (int col = 0; col < gridSize; col++) {
-                if (grid[row][col] != null && !(grid[row][col] instanceof PowerNode)) {
-                    grid[row][col].setPowered(false);
+        if (batchDepth > 0) {
+            batchPowerPending = true;
+        } else {
+            recomputePowerFlow();
+            resyncDisconnectedEnds();
+            drawGrid();
+        }
+
+        // Возвращаем true только если все провода подключены
+        return board.getPoweredWireCount() == board.getWireCount();
+    }
+
+    // Пересчитывает питание всей доски за один проход от всех источников сразу:
+    // каждая компонента связанных проводов обходится один раз, а маски всех
+    // источников, касающихся компоненты, объединяются в маску компоненты
+    private void recomputePowerFlow() {
+        // Сбрасываем питание (и маски источников) для всех узлов кроме PowerNode
+        board.unpowerAll();
+        propagationVisited.clear();
+        componentCount = 0;
+        poweredCellCount = 0;
+        shortedCellCount = 0;
+
+        // Источники питания всегда под напряжением
+        for (int source = 0; source < powerNodes.size(); source++) {
+            PowerNode powerNode = powerNodes.get(source);
+            powerNode.setPowered(true);
+            board.setSources(powerNode.getIndex(), 1 << source);
+        }
+
+        // Распространяем энергию каждого источника только в его активных направлениях
+        for (int source = 0; source < powerNodes.size(); source++) {
+            PowerNode powerNode = powerNodes.get(source);
+            int activeDirections = powerNode.getActiveMask();
+            int colorBit = 1 << powerNode.getColor();
+            for (int dir = 0; dir < 4; dir++) {
+                if ((activeDirections & (1 << dir)) == 0) {
+                    continue;
+                }
+                int next = board.neighbour(powerNode.getIndex(), dir);
+                if (next >= 0) {
+                    propagatePower(next, BoardState.opposite(dir), 1 << source, colorBit);
                 }
             }
         }
 
-        // Получаем координаты источника питания
-        int powerRow = _powerNode.getRow();
-        int powerCol = _powerNode.getCol();
+        // Записываем маски источников запитанных клеток и считаем замыкания
+        for (int i = 0; i < poweredCellCount; i++) {
+            int index = poweredCells[i];
+            int component = componentOf[index];
+            board.setSources(index, componentSources[component]);
+            if (Integer.bitCount(componentColors[component]) > 1) {
+                shortedCellCount++;
+            }
+        }
 
-        // Получаем активные направления источника питания
-        Set<WireNode.Direction> activeDirections = _powerNode.getActiveDirections();
+        // Запоминаем состояние схемы для инкрементальных пересчётов (только для одного источника)
+        powerFlowEngine.resync(powerNodes.size() == 1 ? _powerNode.getIndex() : -1);
+    }
 
-        // Распространяем энергию только в активных направлениях
-        if (activeDirections.contains(WireNode.Direction.UP)) {
-            propagatePower(powerRow - 1, powerCol, 180); // вверх
+    // Открывает пакет изменений. Повороты и изменения сетки внутри пакета не пересчитывают
+    // питание, не перерисовывают сетку и не публикуют ходы: всё это выполняется один раз
+    // при фиксации внешнего пакета. Пакеты могут быть вложенными
+    public void beginBatch() {
+        if (batchDepth++ == 0) {
+            board.copySources(previousSources);
+            batchEvent.clear();
+            batchRotated.clear();
+            batchPowerPending = false;
+            batchRedrawPending = false;
         }
+    }
 
-        if (activeDirections.contains(WireNode.Direction.RIGHT)) {
-            propagatePower(powerRow, powerCol + 1, 270); // вправо
+    // Фиксирует пакет. Внешний пакет пересчитывает питание (если что-то менялось), один раз
+    // перерисовывает сетку и рассылает одно событие со всеми поворотами пакета.
+    // Возвращает это событие или null, если поворотов не было или пакет вложенный
+    public PowerChangeEvent commitBatch() {
+        if (batchDepth == 0) {
+            throw new IllegalStateException("No open batch to commit");
+        }
+        if (--batchDepth > 0) {
+            return null;
         }
 
-        if (activeDirections.contains(WireNode.Direction.DOWN)) {
-            propagatePower(powerRow + 1, powerCol, 0); // вниз
+        for (int i = 0; i < batchEvent.getRotatedCount(); i++) {
+            collectDisconnectedEndChanges(batchEvent, batchEvent.getRotatedNode(i).getIndex());
         }
+        if (batchPowerPending) {
+            recomputePowerFlow();
+            batchRedrawPending = true;
+        }
+        if (batchRedrawPending) {
+            drawGrid();
+        }
+        if (batchEvent.getRotatedCount() == 0) {
+            return null;
+        }
+        collectSourceChanges(batchEvent);
+        publish(batchEvent);
+        return batchEvent;
+    }
 
-        if (activeDirections.contains(WireNode.Direction.LEFT)) {
-            propagatePower(powerRow, powerCol - 1, 90); // влево
+    public boolean isInBatch() {
+        return batchDepth > 0;
+    }
+
+    // Пересчитывает питание только в части схемы, затронутой поворотом узла, и рассылает
+    // подписчикам событие хода с клетками, у которых изменилось состояние питания.
+    // При нескольких источниках выполняется полный однопроходный пересчёт
+    public PowerChangeEvent updatePowerFlowAfterRotation(GameNode node) {
+        if (batchDepth > 0) {
+            // Поворот уже записан в пакет, питание пересчитается при фиксации
+            batchPowerPending = true;
+            return batchEvent;
+        }
+        int previousRotation = lastRotatedNode == node ? lastPreviousRotation : node.getRotation();
+        lastRotatedNode = null;
+        moveEvent.reset(node, previousRotation);
+
+        if (powerNodes.size() == 1) {
+            int count = powerFlowEngine.onCellRotated(node.getIndex());
+            for (int i = 0; i < count; i++) {
+                int index = powerFlowEngine.getChangedCell(i);
+                moveEvent.addChange(index, board.isPowered(index)
+                        ? PowerChangeEvent.POWER_GAINED : PowerChangeEvent.POWER_LOST);
+            }
+            collectDisconnectedEndChanges(moveEvent, node.getIndex());
+            drawGrid();
+        } else {
+            // Висящие концы сравниваются до полного прохода, который их пересчитает
+            collectDisconnectedEndChanges(moveEvent, node.getIndex());
+            board.copySources(previousSources);
+            updatePowerFlow();
+            collectSourceChanges(moveEvent);
         }
 
-        // Считаем количество подключенных проводов
-        int poweredWires = 0;
-        int totalWires = 0;
+        publish(moveEvent);
+        return moveEvent;
+    }
 
-        for (int row = 0; row < gridSize; row++) {
-            for (int col = 0; col < gridSize; col++) {
-                if (grid[row][col] instanceof WireNode) {
-                    totalWires++;
-                    if (grid[row][col].isPowered()) {
-                        poweredWires++;
-                    }
-                }
+    // Добавляет в событие клетки, маска источников которых отличается от previousSources
+    private void collectSourceChanges(PowerChangeEvent event) {
+        for (int index = 0; index < previousSources.length; index++) {
+            int sources = board.getSources(index);
+            if (sources == previousSources[index] || board.getKind(index) == BoardState.POWER) {
+                continue;
+            }
+            if (previousSources[index] == 0) {
+                event.addChange(index, PowerChangeEvent.POWER_GAINED);
+            } else if (sources == 0) {
+                event.addChange(index, PowerChangeEvent.POWER_LOST);
+            } else {
+                event.addChange(index, PowerChangeEvent.SOURCES_CHANGED);
             }
         }
+    }
 
-        // Перерисовываем сетку
-        drawGrid();
+    // Поворот меняет висящие концы только у самой клетки и её соседей: обновляем их
+    // и добавляем в событие клетки, у которых висящий конец появился или пропал
+    private void collectDisconnectedEndChanges(PowerChangeEvent event, int index) {
+        updateDisconnectedEnd(event, index);
+        for (int dir = 0; dir < 4; dir++) {
+            int next = board.neighbour(index, dir);
+            if (next >= 0) {
+                updateDisconnectedEnd(event, next);
+            }
+        }
+    }
 
-        // Возвращаем true только если все провода подключены
-        return poweredWires == totalWires;
+    private void updateDisconnectedEnd(PowerChangeEvent event, int index) {
+        boolean disconnected = findDisconnectedEnd(index);
+        if (disconnected != disconnectedEnds.get(index)) {
+            disconnectedEnds.set(index, disconnected);
+            event.addChange(index, PowerChangeEvent.DISCONNECTED_END_CHANGED);
+        }
     }
 
-    private void propagatePower(int row, int col, int fromDirection) {
-        // Проверка границ сетки
-        if (row < 0 || row >= gridSize || col < 0 || col >= gridSize) {
-            return;
+    // Пересчитывает висящие концы всей доски (после генерации и полного пересчёта питания)
+    private void resyncDisconnectedEnds() {
+        for (int index = 0; index < board.size(); index++) {
+            disconnectedEnds.set(index, findDisconnectedEnd(index));
         }
+    }
 
-        GameNode node = grid[row][col];
-        if (node == null) {
-            return;
+    // Есть ли у клетки соединение, уходящее за край поля, в пустую клетку или в клетку,
+    // которая не соединяется в ответ (то же правило, что у BoardState.isClosed)
+    private boolean findDisconnectedEnd(int index) {
+        int mask = board.getMask(index);
+        for (int dir = 0; dir < 4; dir++) {
+            if ((mask & (1 << dir)) == 0) {
+                continue;
+            }
+            int next = board.neighbour(index, dir);
+            if (next < 0 || !board.hasConnection(next, BoardState.opposite(dir))) {
+                return true;
+            }
         }
+        return false;
+    }
 
-        // Если узел уже под напряжением, нет необходимости распространять дальше
-        if (node.isPowered()) {
-            return;
+    private void publish(PowerChangeEvent event) {
+        for (int i = 0; i < powerChangeListeners.size(); i++) {
+            powerChangeListeners.get(i).onPowerChanged(event);
         }
+    }
 
-        // Для лампочки - проверяем, что энергия приходит с правильной стороны
-        if (node instanceof LightBulbNode) {
-            WireNode.Direction bulbDirection = WireNode.Direction.fromDegrees(node.getRotation());
-            WireNode.Direction powerDirection = WireNode.Direction.fromDegrees(fromDirection);
+    // Подаёт энергию источника в клетку со стороны fromDir. Если клетка уже запитана,
+    // источник добавляется к маске её компоненты; иначе итеративно (переиспользуемый стек
+    // индексов клеток) обходится новая компонента связанных проводов
+    private void propagatePower(int index, int fromDir, int sourceBit, int colorBit) {
+        if (propagationVisited.get(index)) {
+            if (board.hasConnection(index, fromDir)) {
+                componentSources[componentOf[index]] |= sourceBit;
+                componentColors[componentOf[index]] |= colorBit;
+            }
+            return;
+        }
 
-            // Лампочка получает питание только если она смотрит в направлении,
-            // откуда приходит энергия (т.е. на провод)
-            if (bulbDirection != powerDirection) {
-                System.out.println("Лампочка в [" + row + "," + col + "] не запитана. " +
-                        "Её направление: " + bulbDirection + ", направление энергии: " + powerDirection);
-                return; // Лампочка смотрит не в ту сторону
+        int component = componentCount;
+        int top = powerCell(index, fromDir, component, 0);
+        if (!propagationVisited.get(index)) {
+            return;
+        }
+        componentCount++;
+        componentSources[component] = sourceBit;
+        componentColors[component] = colorBit;
+
+        while (top > 0) {
+            int current = propagationStack[--top];
+            int mask = board.getMask(current);
+
+            // Распространяем энергию по всем подключенным направлениям;
+            // клетка, откуда пришла энергия, уже посещена и будет пропущена
+            for (int dir = 0; dir < 4; dir++) {
+                if ((mask & (1 << dir)) == 0) {
+                    continue;
+                }
+                int next = board.neighbour(current, dir);
+                if (next >= 0) {
+                    top = powerCell(next, BoardState.opposite(dir), component, top);
+                }
             }
-            System.out.println("Лампочка в [" + row + "," + col + "] запитана! " +
-                    "Её направление: " + bulbDirection + ", направление энергии: " + powerDirection);
         }
+    }
 
-        // Для провода - проверяем, принимает ли он энергию с текущего направления
-        if (node instanceof WireNode) {
-            WireNode wireNode = (WireNode) node;
-            WireNode.Direction fromDir = WireNode.Direction.fromDegrees(fromDirection);
+    // Подаёт энергию в клетку со стороны fromDir и относит её к компоненте. Запитанные
+    // провода кладутся в стек для дальнейшего обхода; возвращает новую вершину стека
+    private int powerCell(int index, int fromDir, int component, int top) {
+        int kind = board.getKind(index);
 
-            if (!wireNode.isDirectionConnected(fromDir)) {
-                return; // Провод не принимает энергию с этого направления
-            }
+        // Пустая клетка, уже посещённая клетка или сам источник - дальше не распространяем
+        if (kind == BoardState.EMPTY || kind == BoardState.POWER || propagationVisited.get(index)) {
+            return top;
+        }
+
+        // Лампочка получает питание только если она смотрит в направлении, откуда приходит
+        // энергия; провод - только если у него есть соединение с этой стороны
+        boolean accepts = board.hasConnection(index, fromDir);
+        if (kind == BoardState.BULB && Diagnostics.isEnabled(Subsystem.POWER)) {
+            WireNode.Direction bulbDirection = DIRECTIONS[Integer.numberOfTrailingZeros(board.getMask(index))];
+            Diagnostics.log(Subsystem.POWER, "Лампочка в [" + board.row(index) + "," + board.col(index) + "] " +
+                    (accepts ? "запитана! " : "не запитана. ") +
+                    "Её направление: " + bulbDirection + ", направление энергии: " + DIRECTIONS[fromDir]);
+        }
+        if (!accepts) {
+            return top;
         }
 
         // Применяем питание к узлу
-        node.setPowered(true);
+        propagationVisited.set(index);
+        board.setPowered(index, true);
+        componentOf[index] = component;
+        poweredCells[poweredCellCount++] = index;
 
         // Распространяем питание дальше только для проводов
-        if (node instanceof WireNode) {
-            WireNode wireNode = (WireNode) node;
+        if (kind == BoardState.WIRE) {
+            propagationStack[top++] = index;
+        }
+        return top;
+    }
 
-            // Распространяем энергию по всем подключенным направлениям
-            for (WireNode.Direction dir : wireNode.getConnectedDirections()) {
-                // Не распространяем энергию обратно в направлении, откуда пришли
-                if (dir.getDegrees() == fromDirection) {
-                    continue;
-                }
+    // Проверяем, что все лампочки и все провода подключены (счётчики ведёт BoardState),
+    // что источники разных цветов нигде не замкнуты между собой и что ни одно соединение
+    // не висит в воздухе и не выходит за край поля. Последнее правило то же, что у
+    // BoardSolver, поэтому проверка единственности решения считает именно выигрышные
+    // раскладки
+    public boolean isGameWon() {
+        return board.isFullyPowered() && shortedCellCount == 0 && board.isClosed();
+    }
 
-                // Вычисляем новые координаты в зависимости от направления
-                int newRow = row;
-                int newCol = col;
+    // Есть ли у клетки висящий конец (на момент последнего хода или полного пересчёта)
+    public boolean hasDisconnectedEnd(int index) {
+        return disconnectedEnds.get(index);
+    }
 
-                switch (dir) {
-                    case UP:
-                        newRow--;
-                        break;
-                    case RIGHT:
-                        newCol++;
-                        break;
-                    case DOWN:
-                        newRow++;
-                        break;
-                    case LEFT:
-                        newCol--;
-                        break;
-                }
+    // Количество клеток, запитанных источниками разных цветов
+    public int getShortedCellCount() {
+        return shortedCellCount;
+    }
 
-                // Распространяем энергию в новом направлении
-                propagatePower(newRow, newCol, dir.getOpposite().getDegrees());
-            }
-        }
+    public List<PowerNode> getPowerNodes() {
+        return powerNodes;
     }
 
-    public boolean isGameWon() {
-        // Проверяем, что все лампочки подключены
-        for (LightBulbNode bulb : lightBulbNodes) {
-            if (!bulb.isPowered()) {
-                return false;
-            }
+    // Цвет энергии в клетке: цвет питающих её источников или цвет замыкания
+    public Color getPowerColor(int index) {
+        int sources = board.getSources(index);
+        int colors = 0;
+        while (sources != 0) {
+            colors |= 1 << powerNodes.get(Integer.numberOfTrailingZeros(sources)).getColor();
+            sources &= sources - 1;
         }
-
-        // Проверяем, что все провода подключены
-        for (int row = 0; row < gridSize; row++) {
-            for (int col = 0; col < gridSize; col++) {
-                if (grid[row][col] instanceof WireNode && !grid[row][col].isPowered()) {
-                    return false;
-                }
-            }
+        if (Integer.bitCount(colors) > 1) {
+            return PowerNode.SHORT_COLOR;
         }
+        return PowerNode.colorOf(colors == 0 ? 0 : Integer.numberOfTrailingZeros(colors));
+    }
+
+    // Количество горящих лампочек
+    public int getLitBulbCount() {
+        return board.getPoweredBulbCount();
+    }
+
+    // Общее количество лампочек на поле
+    public int getBulbCount() {
+        return board.getBulbCount();
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getCols() {
+        return cols;
+    }
+
+    // Статистика последней генерации: время этапов и счётчики работы генератора
+    public GenerationStats getGenerationStats() {
+        return generationStats;
+    }
+
+    public boolean isGenerated() {
+        return generated;
+    }
 
-        return true;
+    // Выигрывает ли игру сгенерированное решение: все клетки запитаны, замыканий
+    // и открытых концов проводов нет
+    public boolean isSolutionWon() {
+        return solutionWon;
     }
 
-    public int getGridSize() {
-        return gridSize;
+    public long getSeed() {
+        return seed;
     }
 
     public Difficulty getDifficulty() {
@@ -7,35 +7,44 @@
  * Description: Abstract base class that represents game board elements (nodes)
  * with common properties such as position, rotation and power state. Provides
  * core functionality for all game elements including drawing, rotation and
- * power state management in the "lightbulb" project.
+ * power state management in the "lightbulb" project. Connection and power state
+ * is stored in the shared BoardState; a node is only a view of its cell.
  */
 
 
 package ija2025;
 
 import javafx.scene.canvas.GraphicsContext;
-import javafx.scene.layout.StackPane;
 
 // Abstract base class for all game nodes
-public abstract class GameNode extends StackPane {
+public abstract class GameNode {
     protected int row; // Row position on grid
     protected int col; // Column position on grid
     protected int rotation = 0; // Rotation angle in degrees
-    protected boolean isPowered = false; // Node power state
     protected GameManager gameManager; // Game manager reference
+    protected BoardState board; // Board the node's state lives in
+    protected int index; // Cell index on the board
 
     // Constructor with position parameters
     public GameNode(int row, int col) {
         this.row = row;
         this.col = col;
-
-        // Set up click handler for rotation
-        this.setOnMouseClicked(event -> rotate());
     }
 
-    // Sets reference to game manager
+    // Sets reference to game manager and places the node on its board
     public void setGameManager(GameManager gameManager) {
         this.gameManager = gameManager;
+        this.board = gameManager.getBoardState();
+        this.index = board.index(row, col);
+        board.setCell(index, getKind(), initialMask());
+    }
+
+    // Tile kind stored on the board (see BoardState constants)
+    protected abstract int getKind();
+
+    // Connection mask written to the board when the node is placed
+    protected int initialMask() {
+        return 0;
     }
 
     // Abstract method to render the node
@@ -43,13 +52,29 @@ public abstract class GameNode extends StackPane {
 
     // Rotates node by 90 degrees
     public void rotate() {
+        rotateBy(1);
+    }
+
+    // Rotates node clockwise by the given number of quarter turns (negative turns
+    // counter-clockwise) in one step, producing a single rotation log entry
+    public void rotateBy(int quarterTurns) {
+        int turns = quarterTurns & 3;
+        if (turns == 0) {
+            return;
+        }
         int prevRotation = this.rotation;
-        this.rotation = (this.rotation + 90) % 360;
+        this.rotation = (this.rotation + turns * 90) % 360;
+        board.rotateMask(index, turns);
         if (gameManager != null) {
             gameManager.logNodeRotation(this, prevRotation);
         }
     }
 
+    // Rotates node so that its rotation matches the given direction (0 degrees is UP)
+    public void rotateTo(WireNode.Direction direction) {
+        rotateBy((direction.getDegrees() - this.rotation) / 90);
+    }
+
     // Gets row coordinate
     public int getRow() {
         return row;
@@ -60,23 +85,31 @@ public abstract class GameNode extends StackPane {
         return col;
     }
 
+    // Gets cell index on the board
+    public int getIndex() {
+        return index;
+    }
+
     // Gets current rotation angle
     public int getRotation() {
         return rotation;
     }
 
-    // Sets rotation angle
+    // Sets rotation angle, turning the connections along with it
     public void setRotation(int rotation) {
+        if (board != null) {
+            board.rotateMask(index, (rotation - this.rotation) / 90);
+        }
         this.rotation = rotation;
     }
 
     // Checks power state
     public boolean isPowered() {
-        return isPowered;
+        return board.isPowered(index);
     }
 
     // Sets power state
     public void setPowered(boolean powered) {
-        isPowered = powered;
+        board.setPowered(index, powered);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,217 @@
+/*
+ * GenerationStats.java
+ *
+ * Authors: Zhdanovich Iaroslav (xzhdan00)
+ *          Malytskyi Denys     (xmalytd00)
+ *
+ * Description: Statistics of one board generation in the "lightbulb" project.
+ * Records the wall time of every generation phase together with counters of the
+ * work done by the path-routing generator (bulb placement attempts, route searches
+ * and the cells they visited, repair iterations and replaced tiles), so generators and their
+ * phases can be compared quantitatively. Calibrated boards also carry the effort the
+ * solver needed (forced tiles, decisions, backtracks). Statistics of several boards
+ * can be summed up with add().
+ */
+
+
+package ija2025;
+
+import java.util.Arrays;
+
+public class GenerationStats {
+    public enum Phase {
+        PLACEMENT,      // placing bulbs into free cells (path routing)
+        ROUTING,        // connecting placed bulbs to the source (path routing)
+        WIRE_REPAIR,    // replacing dead-end wires by bulbs (path routing)
+        BULB_REPAIR,    // reconnecting unpowered bulbs (path routing)
+        FINALIZE,       // trimming the source connections (path routing)
+        SPANNING_TREE,  // building the whole board (spanning tree)
+        SHUFFLE,        // saving the solution and shuffling the tiles
+        POWER,          // initial power flow of the shuffled board
+        CALIBRATION     // solving the board to measure its difficulty
+    }
+
+    private final long[] phaseNanos = new long[Phase.values().length];
+
+    private long boardCount = 0;
+    private long placementAttempts = 0;
+    private long routeSearches = 0;
+    private long routeCellsVisited = 0;
+    private long routeFailures = 0;
+    private long wireRepairIterations = 0;
+    private long wiresReplaced = 0;
+    private long bulbRepairs = 0;
+    private long bulbsReplaced = 0;
+    private long solverForced = 0;
+    private long solverDecisions = 0;
+    private long solverBacktracks = 0;
+
+    void reset() {
+        Arrays.fill(phaseNanos, 0);
+        boardCount = 0;
+        placementAttempts = 0;
+        routeSearches = 0;
+        routeCellsVisited = 0;
+        routeFailures = 0;
+        wireRepairIterations = 0;
+        wiresReplaced = 0;
+        bulbRepairs = 0;
+        bulbsReplaced = 0;
+        solverForced = 0;
+        solverDecisions = 0;
+        solverBacktracks = 0;
+    }
+
+    // Adds the time elapsed since the given System.nanoTime() value to the phase.
+    // Returns the current time so consecutive phases can be chained.
+    long endPhase(Phase phase, long startNanos) {
+        long now = System.nanoTime();
+        phaseNanos[phase.ordinal()] += now - startNanos;
+        return now;
+    }
+
+    void boardGenerated() {
+        boardCount++;
+    }
+
+    void placementAttempt() {
+        placementAttempts++;
+    }
+
+    void routeSearch(int cellsVisited, boolean found) {
+        routeSearches++;
+        routeCellsVisited += cellsVisited;
+        if (!found) {
+            routeFailures++;
+        }
+    }
+
+    void wireRepairIteration(int replaced) {
+        wireRepairIterations++;
+        wiresReplaced += replaced;
+    }
+
+    void bulbRepair() {
+        bulbRepairs++;
+    }
+
+    void bulbReplaced() {
+        bulbsReplaced++;
+    }
+
+    void solverEffort(int forced, int decisions, int backtracks) {
+        solverForced += forced;
+        solverDecisions += decisions;
+        solverBacktracks += backtracks;
+    }
+
+    // Sums the statistics of another generation into this one
+    public void add(GenerationStats other) {
+        for (int i = 0; i < phaseNanos.length; i++) {
+            phaseNanos[i] += other.phaseNanos[i];
+        }
+        boardCount += other.boardCount;
+        placementAttempts += other.placementAttempts;
+        routeSearches += other.routeSearches;
+        routeCellsVisited += other.routeCellsVisited;
+        routeFailures += other.routeFailures;
+        wireRepairIterations += other.wireRepairIterations;
+        wiresReplaced += other.wiresReplaced;
+        bulbRepairs += other.bulbRepairs;
+        bulbsReplaced += other.bulbsReplaced;
+        solverForced += other.solverForced;
+        solverDecisions += other.solverDecisions;
+        solverBacktracks += other.solverBacktracks;
+    }
+
+    public long getPhaseNanos(Phase phase) {
+        return phaseNanos[phase.ordinal()];
+    }
+
+    public long getTotalNanos() {
+        long total = 0;
+        for (long nanos : phaseNanos) {
+            total += nanos;
+        }
+        return total;
+    }
+
+    // Number of generated boards the statistics cover
+    public long getBoardCount() {
+        return boardCount;
+    }
+
+    // Random cells drawn while placing bulbs
+    public long getPlacementAttempts() {
+        return placementAttempts;
+    }
+
+    // Route searches from a bulb towards the power source
+    public long getRouteSearches() {
+        return routeSearches;
+    }
+
+    // Cells expanded by all route searches
+    public long getRouteCellsVisited() {
+        return routeCellsVisited;
+    }
+
+    // Route searches that found no route
+    public long getRouteFailures() {
+        return routeFailures;
+    }
+
+    // Passes of the disconnected wire check that found wires to replace
+    public long getWireRepairIterations() {
+        return wireRepairIterations;
+    }
+
+    // Dead-end wires replaced by bulbs
+    public long getWiresReplaced() {
+        return wiresReplaced;
+    }
+
+    // Unpowered bulbs routed to the source again
+    public long getBulbRepairs() {
+        return bulbRepairs;
+    }
+
+    // Powered bulbs turned into wires by tryConnectWithNeighbors
+    public long getBulbsReplaced() {
+        return bulbsReplaced;
+    }
+
+    // Tiles the calibration solver fixed by propagation alone
+    public long getSolverForced() {
+        return solverForced;
+    }
+
+    // Branching decisions the calibration solver needed
+    public long getSolverDecisions() {
+        return solverDecisions;
+    }
+
+    public long getSolverBacktracks() {
+        return solverBacktracks;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (Phase phase : Phase.values()) {
+            sb.append(phase).append('=').append(getPhaseNanos(phase) / 1000).append("us ");
+        }
+        return sb.append("placementAttempts=").append(placementAttempts)
+                .append(" routeSearches=").append(routeSearches)
+                .append(" routeCellsVisited=").append(routeCellsVisited)
+                .append(" routeFailures=").append(routeFailures)
+                .append(" wireRepairIterations=").append(wireRepairIterations)
+                .append(" wiresReplaced=").append(wiresReplaced)
+                .append(" bulbRepairs=").append(bulbRepairs)
+                .append(" bulbsReplaced=").append(bulbsReplaced)
+                .append(" solverForced=").append(solverForced)
+                .append(" solverDecisions=").append(solverDecisions)
+                .append(" solverBacktracks=").append(solverBacktracks)
+                .toString();
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * GridRenderer.java
+ *
+ * Authors: Zhdanovich Iaroslav (xzhdan00)
+ *          Malytskyi Denys     (xmalytd00)
+ *
+ * Description: Dirty-cell renderer for the game canvas in the "lightbulb" project.
+ * Instead of clearing and redrawing the whole grid after every change, it repaints
+ * only the cells the board reported as changed (rotation, power or disconnected
+ * state), at most once per JavaFX pulse. Exposes how many cells were repainted
+ * in the last frame. The tile of the current hint is outlined on top of its drawing.
+ */
+
+
+package ija2025;
+
+import javafx.animation.AnimationTimer;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.paint.Color;
+
+public class GridRenderer {
+    private final GameManager gameManager;
+    private final GraphicsContext gc;
+    private final AnimationTimer pulse;
+    private boolean scheduled = false;
+    // Cell outlined as the current hint, -1 for none
+    private int hintCell = -1;
+
+    // Repaint statistics
+    private int lastFrameRepaintCount = 0;
+    private long totalRepaintCount = 0;
+    private long frameCount = 0;
+
+    public GridRenderer(GameManager gameManager, GraphicsContext gc) {
+        this.gameManager = gameManager;
+        this.gc = gc;
+
+        // The timer runs only while there is something to repaint
+        this.pulse = new AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                repaintDirtyCells();
+                stop();
+                scheduled = false;
+            }
+        };
+    }
+
+    // Schedules a repaint on the next pulse; several requests within one pulse are merged
+    public void requestRepaint() {
+        if (!scheduled && gameManager.getBoardState().getDirtyCount() > 0) {
+            scheduled = true;
+            pulse.start();
+        }
+    }
+
+    // Moves the hint outline to the cell (-1 removes it)
+    public void setHintCell(int index) {
+        BoardState board = gameManager.getBoardState();
+        if (hintCell >= 0) {
+            board.markDirty(hintCell);
+        }
+        hintCell = index;
+        if (index >= 0) {
+            board.markDirty(index);
+        }
+        requestRepaint();
+    }
+
+    // Repaints all dirty cells immediately
+    public void repaintDirtyCells() {
+        BoardState board = gameManager.getBoardState();
+        GameNode[][] grid = gameManager.getGrid();
+        double cellSize = gameManager.getCellSize();
+
+        int count = board.getDirtyCount();
+        for (int i = 0; i < count; i++) {
+            int index = board.getDirtyCell(i);
+            GameNode node = grid[board.row(index)][board.col(index)];
+            if (node != null) {
+                node.draw(gc);
+            } else {
+                gc.clearRect(board.col(index) * cellSize, board.row(index) * cellSize, cellSize, cellSize);
+            }
+            if (index == hintCell) {
+                gc.setStroke(Color.rgb(255, 215, 0));
+                gc.setLineWidth(3);
+                gc.strokeRect(board.col(index) * cellSize + 1.5, board.row(index) * cellSize + 1.5,
+                        cellSize - 3, cellSize - 3);
+            }
+        }
+        board.clearDirty();
+
+        lastFrameRepaintCount = count;
+        totalRepaintCount += count;
+        frameCount++;
+    }
+
+    // Number of cells repainted in the last frame
+    public int getLastFrameRepaintCount() {
+        return lastFrameRepaintCount;
+    }
+
+    public long getTotalRepaintCount() {
+        return totalRepaintCount;
+    }
+
+    public long getFrameCount() {
+        return frameCount;
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ * HintEngine.java
+ *
+ * Authors: Zhdanovich Iaroslav (xzhdan00)
+ *          Malytskyi Denys     (xmalytd00)
+ *
+ * Description: Background hint engine of the "lightbulb" project. After every move
+ * it takes a snapshot of the board on the JavaFX thread and solves the snapshot on a
+ * background virtual thread, so the game never waits for the solver. The search has
+ * a budget of decisions; when it runs out, there is no hint for the move. A move
+ * arriving while a search runs interrupts that search (the solver stops when its
+ * thread is interrupted) and a result that is no longer current is dropped. The hint is a
+ * single rotation: preferably a tile whose orientation deduction alone forces, and
+ * among those the tile with the fewest orientations; only when no forced tile is
+ * wrong does it fall back to the solution found by search. Hints are published to
+ * the listener on the JavaFX thread.
+ */
+
+
+package ija2025;
+
+import ija2025.Diagnostics.Subsystem;
+import javafx.application.Platform;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+public final class HintEngine implements PowerChangeListener {
+    private static final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    // Decisions a hint search may take; calibrated boards need far fewer, so a search
+    // that runs out of them gives no hint instead of keeping the player waiting
+    private static final int HINT_DECISIONS = 200;
+
+    // Suggested rotation: clockwise clicks on the tile
+    public static final class Hint {
+        private final int row;
+        private final int col;
+        private final int clicks;
+        private final boolean forced;
+
+        Hint(int row, int col, int clicks, boolean forced) {
+            this.row = row;
+            this.col = col;
+            this.clicks = clicks;
+            this.forced = forced;
+        }
+
+        public int getRow() {
+            return row;
+        }
+
+        public int getCol() {
+            return col;
+        }
+
+        public int getClicks() {
+            return clicks;
+        }
+
+        // Whether the rotation follows from deduction alone, not from a guess of the search
+        public boolean isForced() {
+            return forced;
+        }
+    }
+
+    private final GameManager gameManager;
+    private final Consumer<Hint> listener;
+
+    // Fields below are only touched on the JavaFX thread
+    private Future<?> search;
+    // Number of the last requested hint; results of older requests are dropped
+    private long requestCount = 0;
+    private Hint hint;
+    private long lastLatencyNanos = 0;
+
+    // The listener receives every new hint on the JavaFX thread (null when the board
+    // is solved or has no solution)
+    public HintEngine(GameManager gameManager, Consumer<Hint> listener) {
+        this.gameManager = gameManager;
+        this.listener = listener;
+    }
+
+    // Computes the hint of the current board and a new one after every move
+    public void start() {
+        gameManager.addPowerChangeListener(this);
+        requestHint();
+    }
+
+    public void stop() {
+        gameManager.removePowerChangeListener(this);
+        if (search != null) {
+            search.cancel(true);
+            search = null;
+        }
+        requestCount++;
+    }
+
+    @Override
+    public void onPowerChanged(PowerChangeEvent event) {
+        requestHint();
+    }
+
+    // Latest hint, null while it is being computed or when there is none
+    public Hint getHint() {
+        return hint;
+    }
+
+    // Time from the last move to the publication of its hint
+    public long getLastLatencyNanos() {
+        return lastLatencyNanos;
+    }
+
+    // Starts the search for the hint of the board as it is now, cancelling the last one
+    public void requestHint() {
+        if (search != null) {
+            search.cancel(true);
+        }
+        long request = ++requestCount;
+        long start = System.nanoTime();
+        hint = null;
+        BoardState snapshot = gameManager.getBoardState().snapshot();
+        search = executor.submit(() -> {
+            BoardSolver solver = new BoardSolver(snapshot);
+            solver.setDecisionLimit(HINT_DECISIONS);
+            solver.solve(gameManager);
+            if (solver.isCancelled()) {
+                return;
+            }
+            // A search cut off by the budget publishes no hint
+            Hint found = solver.isSolved() || solver.isExhausted() ? findHint(snapshot, solver) : null;
+            Platform.runLater(() -> publish(request, found, start));
+        });
+    }
+
+    private void publish(long request, Hint found, long start) {
+        if (request != requestCount) {
+            return;
+        }
+        search = null;
+        hint = found;
+        lastLatencyNanos = System.nanoTime() - start;
+        Diagnostics.log(Subsystem.HINT, () -> "Hint " + (found == null ? "none"
+                : "[" + found.getRow() + "," + found.getCol() + "] x" + found.getClicks())
+                + " in " + lastLatencyNanos / 1000 + " us");
+        listener.accept(found);
+    }
+
+    // Picks the most constrained tile that is not in its solved orientation
+    static Hint findHint(BoardState board, BoardSolver solver) {
+        int best = -1;
+        int bestClicks = 0;
+        boolean bestForced = false;
+        int bestOptions = 5;
+        for (int i = 0; i < board.size(); i++) {
+            if (board.getKind(i) == BoardState.EMPTY) {
+                continue;
+            }
+            boolean forced = solver.isForced(i);
+            int clicks = forced ? solver.getForcedTurns(i) : solver.isSolved() ? solver.getSolutionTurns(i) : 0;
+            if (clicks == 0) {
+                continue;
+            }
+            int options = Integer.bitCount(BoardSolver.distinctTurns(board.getMask(i)));
+            if (best < 0 || (forced && !bestForced) || (forced == bestForced && options < bestOptions)) {
+                best = i;
+                bestClicks = clicks;
+                bestForced = forced;
+                bestOptions = options;
+            }
+        }
+        return best < 0 ? null : new Hint(board.row(best), board.col(best), bestClicks, bestForced);
+    }
+}
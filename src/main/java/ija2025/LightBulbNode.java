@@ -18,13 +18,21 @@ import javafx.scene.paint.Color;
 
 public class LightBulbNode extends GameNode {
 
-    // Flag indicating if the bulb is disconnected from the circuit
-    private boolean isDisconnected = false;
-
     public LightBulbNode(int row, int col) {
         super(row, col);
     }
 
+    @Override
+    protected int getKind() {
+        return BoardState.BULB;
+    }
+
+    // A bulb is connected only on the side it faces
+    @Override
+    protected int initialMask() {
+        return BoardState.bit(WireNode.Direction.fromDegrees(rotation));
+    }
+
     @Override
     public void draw(GraphicsContext gc) {
         double cellSize = gameManager.getCellSize();
@@ -53,7 +61,7 @@ public class LightBulbNode extends GameNode {
         if (isDisconnected()) {
             gc.setFill(Color.RED); // Red for disconnected bulb
         } else {
-            gc.setFill(isPowered() ? Color.rgb(255, 185, 1) : Color.rgb(150, 150, 150));
+            gc.setFill(isPowered() ? gameManager.getPowerColor(index) : Color.rgb(150, 150, 150));
         }
 
         gc.fillRect(-connectionWidth/2, -cellSize/2 - overlap, connectionWidth,
@@ -98,16 +106,11 @@ public class LightBulbNode extends GameNode {
         gc.restore();
     }
 
-    @Override
-    public void rotate() {
-        super.rotate(); // Call parent rotation method
-    }
-
     public boolean isDisconnected() {
-        return isDisconnected;
+        return board.isDisconnected(index);
     }
 
     public void setDisconnected(boolean disconnected) {
-        this.isDisconnected = disconnected;
+        board.setDisconnected(index, disconnected);
     }
 }
\ No newline at end of file
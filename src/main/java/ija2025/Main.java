@@ -24,6 +24,9 @@ import java.util.Objects;
 public class Main extends Application {
     @Override
     public void start(Stage stage) throws IOException {
+        // Boards are prepared in the background while the menus are shown
+        BoardPool.start();
+
         Parent root = FXMLLoader.load(Objects.requireNonNull(getClass().getResource("/main-view.fxml")));
         Scene scene = new Scene(root, 550, 650);
         stage.setScene(scene);
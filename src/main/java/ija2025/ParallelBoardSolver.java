@@ -0,0 +1,335 @@
+/*
+ * ParallelBoardSolver.java
+ *
+ * Authors: Zhdanovich Iaroslav (xzhdan00)
+ *          Malytskyi Denys     (xmalytd00)
+ *
+ * Description: Parallel solving mode of the "lightbulb" project for very large boards.
+ * The search tree of BoardSolver is split at its first decisions: a task deduces
+ * everything it can, picks the tile the sequential search would decide next and forks
+ * one subtask per remaining orientation of that tile, until there are enough subtrees
+ * to keep every worker of the fork/join pool busy. The subtrees, with the whole tree
+ * as the first of them, are then searched in rounds by their own sequential solvers,
+ * and idle workers steal the searches of busy ones. In every round a search may take
+ * a limited number of decisions and goes on from where it stopped in the next round
+ * with twice as many, so a subtree without a solution that is hard to refute does not
+ * hold up the others; how long a search takes is very sensitive to its first
+ * decisions, so one of the subtrees may finish long before the whole tree would.
+ * After a round the first solved subtree in the order of the split wins, the searches
+ * of the subtrees after a solved one are cancelled, and subtrees proven to have no
+ * solution are dropped. Every search of a round is deterministic, so the solution
+ * found depends only on the board and the number of subtrees, not on the number of
+ * workers or their timing.
+ * The searches of all subtrees together take several times the decisions of a single
+ * sequential search, so on one core this mode is much slower than BoardSolver. Any
+ * gain comes only from running the subtrees on separate cores.
+ */
+
+
+package ija2025;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class ParallelBoardSolver {
+    // Subtrees per worker: more than one, so a worker whose subtree is refuted quickly
+    // finds other work to steal. Every open subtree keeps its solver between rounds,
+    // so the number also bounds the memory taken.
+    private static final int SUBTREES_PER_WORKER = 2;
+    // Decisions every search may take in the first round; every round doubles them
+    private static final int FIRST_ROUND_DECISIONS = 64;
+
+    private final BoardState board;
+    private final ForkJoinPool pool;
+    private int subtreeCount;
+
+    // Result and effort statistics of the last solve
+    private boolean solved = false;
+    private int[] solution;
+    private int splitCount = 0;
+    private int roundCount = 0;
+    private final AtomicInteger searchCount = new AtomicInteger();
+    private final AtomicLong decisionCount = new AtomicLong();
+    private final AtomicLong backtrackCount = new AtomicLong();
+
+    // A part of the search tree: the orientations its tiles start with (null for all),
+    // the solver searching it while it is open, its solution once the search found one
+    // and whether the search proved that it has none
+    private static final class Subtree {
+        private final int[] domains;
+        private BoardSolver solver;
+        private int[] solution;
+        private boolean refuted = false;
+
+        Subtree(int[] domains) {
+            this.domains = domains;
+        }
+    }
+
+    public ParallelBoardSolver(BoardState board) {
+        this(board, ForkJoinPool.commonPool());
+    }
+
+    public ParallelBoardSolver(BoardState board, ForkJoinPool pool) {
+        this.board = board;
+        this.pool = pool;
+        this.subtreeCount = pool.getParallelism() * SUBTREES_PER_WORKER;
+    }
+
+    // Number of subtrees the search is split into at least (1 solves sequentially).
+    // The same board and subtree count always give the same solution.
+    public void setSubtreeCount(int subtreeCount) {
+        this.subtreeCount = Math.max(1, subtreeCount);
+    }
+
+    // Solves the board from its current orientations in the pool. The colours of the
+    // sources are given by the game manager, and the board must not change until the
+    // solve returns. Returns true when a solution was found.
+    public boolean solve(GameManager gameManager) {
+        solution = null;
+        roundCount = 0;
+        searchCount.set(0);
+        decisionCount.set(0);
+        backtrackCount.set(0);
+
+        List<Subtree> split = pool.invoke(new SplitTask(gameManager, null, subtreeCount));
+        splitCount = split.size();
+        List<Subtree> subtrees = new ArrayList<>();
+        if (!split.isEmpty() && split.get(0).domains != null) {
+            subtrees.add(new Subtree(null));
+        }
+        subtrees.addAll(split);
+
+        int decisionLimit = FIRST_ROUND_DECISIONS;
+        while (!subtrees.isEmpty()) {
+            // Subtrees solved by deduction during the split count as the first round
+            if (roundCount > 0 || !hasSolution(subtrees)) {
+                runRound(gameManager, subtrees, subtrees.size() == 1 ? Integer.MAX_VALUE : decisionLimit);
+                decisionLimit = decisionLimit > Integer.MAX_VALUE / 2 ? Integer.MAX_VALUE : decisionLimit * 2;
+            }
+            roundCount++;
+
+            List<Subtree> open = new ArrayList<>();
+            for (Subtree subtree : subtrees) {
+                if (subtree.solution != null) {
+                    solution = subtree.solution;
+                    break;
+                }
+                if (!subtree.refuted) {
+                    open.add(subtree);
+                }
+            }
+            if (solution != null) {
+                break;
+            }
+            subtrees = open;
+        }
+        solved = solution != null;
+        return solved;
+    }
+
+    private static boolean hasSolution(List<Subtree> subtrees) {
+        for (Subtree subtree : subtrees) {
+            if (subtree.solution != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Searches every subtree up to the decision limit and waits for all of them
+    private void runRound(GameManager gameManager, List<Subtree> subtrees, int decisionLimit) {
+        SearchTask[] round = new SearchTask[subtrees.size()];
+        for (int i = 0; i < round.length; i++) {
+            round[i] = new SearchTask(gameManager, subtrees.get(i), decisionLimit, round, i);
+        }
+        for (SearchTask task : round) {
+            pool.execute(task);
+        }
+        for (SearchTask task : round) {
+            task.join();
+        }
+    }
+
+    public boolean isSolved() {
+        return solved;
+    }
+
+    // Clockwise quarter turns from the current orientation of the tile to the solution
+    public int getSolutionTurns(int index) {
+        return solution[index];
+    }
+
+    // Subtrees the search was split into
+    public int getSplitCount() {
+        return splitCount;
+    }
+
+    // Rounds of searches until a subtree was solved or all were refuted
+    public int getRoundCount() {
+        return roundCount;
+    }
+
+    // Searches started or resumed in all rounds together
+    public int getSearchCount() {
+        return searchCount.get();
+    }
+
+    // Branching decisions taken by all searches together
+    public long getDecisionCount() {
+        return decisionCount.get();
+    }
+
+    // Orientations tried and undone by all searches together
+    public long getBacktrackCount() {
+        return backtrackCount.get();
+    }
+
+    // Splits the subtree of the domains into subtrees for about the budget of workers,
+    // returned in the order of the orientations they were split on
+    @SuppressWarnings("serial")
+    private final class SplitTask extends RecursiveTask<List<Subtree>> {
+        private final GameManager gameManager;
+        private final int[] domains;
+        private final int budget;
+
+        SplitTask(GameManager gameManager, int[] domains, int budget) {
+            this.gameManager = gameManager;
+            this.domains = domains;
+            this.budget = budget;
+        }
+
+        @Override
+        protected List<Subtree> compute() {
+            List<Subtree> subtrees = new ArrayList<>();
+            if (budget <= 1) {
+                subtrees.add(new Subtree(domains));
+                return subtrees;
+            }
+
+            // Deduces the subtree without deciding anything and splits it on the tile
+            // the search would decide next
+            BoardSolver deduction = new BoardSolver(board);
+            deduction.setStartDomains(domains);
+            deduction.setDecisionLimit(0);
+            deduction.solve(gameManager);
+            if (deduction.isExhausted()) {
+                return subtrees;
+            }
+            if (deduction.isSolved()) {
+                Subtree solvedSubtree = new Subtree(domains);
+                solvedSubtree.solution = solutionOf(deduction);
+                subtrees.add(solvedSubtree);
+                return subtrees;
+            }
+            int cell = deduction.nextBranchCell();
+            int[] deduced = deduction.getDomains();
+            // A solver of a large board is big, it is not kept while the subtrees split
+            deduction = null;
+
+            int options = deduced[cell];
+            int optionCount = Integer.bitCount(options);
+            SplitTask[] forks = new SplitTask[optionCount];
+            for (int i = 0; i < optionCount; i++) {
+                int turn = Integer.lowestOneBit(options);
+                options &= ~turn;
+                int[] childDomains = i + 1 < optionCount ? deduced.clone() : deduced;
+                childDomains[cell] = turn;
+                forks[i] = new SplitTask(gameManager, childDomains, Math.max(1, budget / optionCount));
+            }
+            for (int i = forks.length - 1; i > 0; i--) {
+                forks[i].fork();
+            }
+            subtrees.addAll(forks[0].compute());
+            for (int i = 1; i < forks.length; i++) {
+                subtrees.addAll(forks[i].join());
+            }
+            return subtrees;
+        }
+    }
+
+    // Starts or resumes the search of one subtree up to the decision limit of the round.
+    // A solved subtree cancels the searches of the subtrees after it, their results
+    // cannot win any more.
+    @SuppressWarnings("serial")
+    private final class SearchTask extends RecursiveAction {
+        private final GameManager gameManager;
+        private final Subtree subtree;
+        private final int decisionLimit;
+        private final SearchTask[] round;
+        private final int position;
+
+        private volatile boolean stopped = false;
+        private volatile BoardSolver solver;
+
+        SearchTask(GameManager gameManager, Subtree subtree, int decisionLimit, SearchTask[] round, int position) {
+            this.gameManager = gameManager;
+            this.subtree = subtree;
+            this.decisionLimit = decisionLimit;
+            this.round = round;
+            this.position = position;
+        }
+
+        @Override
+        protected void compute() {
+            BoardSolver search = subtree.solver;
+            boolean started = search != null;
+            if (!started) {
+                search = new BoardSolver(board);
+                search.setStartDomains(subtree.domains);
+                subtree.solver = search;
+            }
+            int decisionsBefore = search.getDecisionCount();
+            int backtracksBefore = search.getBacktrackCount();
+            solver = search;
+            if (stopped) {
+                return;
+            }
+            if (started) {
+                search.resume(decisionLimit);
+            } else {
+                search.setDecisionLimit(decisionLimit);
+                search.solve(gameManager);
+            }
+            solver = null;
+            searchCount.incrementAndGet();
+            decisionCount.addAndGet(search.getDecisionCount() - decisionsBefore);
+            backtrackCount.addAndGet(search.getBacktrackCount() - backtracksBefore);
+            if (search.isCancelled()) {
+                return;
+            }
+            if (search.isSolved()) {
+                subtree.solution = solutionOf(search);
+                for (int i = position + 1; i < round.length; i++) {
+                    round[i].stop();
+                }
+            } else if (search.isExhausted()) {
+                subtree.refuted = true;
+            }
+            if (subtree.solution != null || subtree.refuted) {
+                subtree.solver = null;
+            }
+        }
+
+        private void stop() {
+            stopped = true;
+            BoardSolver running = solver;
+            if (running != null) {
+                running.cancel();
+            }
+        }
+    }
+
+    private int[] solutionOf(BoardSolver solvedSolver) {
+        int[] turns = new int[board.size()];
+        for (int i = 0; i < turns.length; i++) {
+            turns[i] = solvedSolver.getSolutionTurns(i);
+        }
+        return turns;
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ * PathRouter.java
+ *
+ * Authors: Zhdanovich Iaroslav (xzhdan00)
+ *          Malytskyi Denys     (xmalytd00)
+ *
+ * Description: Shortest-path router used by the path-routing board generator of the
+ * "lightbulb" project. Runs a breadth-first search over the packed board from the
+ * cell in front of a bulb to the nearest cell already carrying power (a power
+ * source or a powered wire), passing only through empty cells and unpowered wires.
+ * The route is computed first and only then committed to the grid by the caller.
+ * All search state lives in primitive scratch buffers that are reused across
+ * calls; visited marks are invalidated by bumping an epoch instead of clearing.
+ */
+
+
+package ija2025;
+
+import java.util.Arrays;
+import java.util.Random;
+
+public class PathRouter {
+    private final BoardState board;
+
+    // Scratch buffers indexed by cell
+    private final int[] mark;       // epoch of the search that reached the cell
+    private final int[] parent;     // previous cell on the route
+    private final byte[] stepDir;   // direction of the step from the parent into the cell
+    private final int[] depth;      // number of steps from the start cell
+    private final int[] queue;
+    private final int[] path;
+    private int epoch = 0;
+
+    private int pathLength = 0;
+    private int visitedCount = 0;
+
+    public PathRouter(BoardState board) {
+        this.board = board;
+        int size = board.size();
+        this.mark = new int[size];
+        this.parent = new int[size];
+        this.stepDir = new byte[size];
+        this.depth = new int[size];
+        this.queue = new int[size];
+        this.path = new int[size];
+    }
+
+    // Finds the shortest route of at most maxLength steps from the start cell to a cell
+    // carrying power. Neighbours are tried starting from a random direction so that
+    // equally short routes vary between boards. Returns the number of cells on the
+    // route including both ends, or -1 when no route exists.
+    public int route(int start, int maxLength, Random random) {
+        nextEpoch();
+        pathLength = 0;
+        visitedCount = 0;
+
+        if (isTarget(start)) {
+            path[0] = start;
+            pathLength = 1;
+            return pathLength;
+        }
+        if (!isPassable(start)) {
+            return -1;
+        }
+
+        int offset = random.nextInt(4);
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = start;
+        mark[start] = epoch;
+        depth[start] = 0;
+
+        while (head < tail) {
+            int cell = queue[head++];
+            visitedCount++;
+            if (depth[cell] >= maxLength) {
+                continue;
+            }
+            for (int k = 0; k < 4; k++) {
+                int dir = (k + offset) & 3;
+                int next = board.neighbour(cell, dir);
+                if (next < 0 || mark[next] == epoch) {
+                    continue;
+                }
+                boolean target = isTarget(next);
+                if (!target && !isPassable(next)) {
+                    continue;
+                }
+                mark[next] = epoch;
+                parent[next] = cell;
+                stepDir[next] = (byte) dir;
+                depth[next] = depth[cell] + 1;
+                if (target) {
+                    return buildPath(next);
+                }
+                queue[tail++] = next;
+            }
+        }
+        return -1;
+    }
+
+    // Walks the parent links back from the target and stores the route start first
+    private int buildPath(int target) {
+        pathLength = depth[target] + 1;
+        int cell = target;
+        for (int i = pathLength - 1; i >= 0; i--) {
+            path[i] = cell;
+            cell = parent[cell];
+        }
+        return pathLength;
+    }
+
+    private void nextEpoch() {
+        if (++epoch == Integer.MAX_VALUE) {
+            Arrays.fill(mark, 0);
+            epoch = 1;
+        }
+    }
+
+    // Cells the route may end in: a power source or a wire connected to one
+    private boolean isTarget(int index) {
+        int kind = board.getKind(index);
+        return kind == BoardState.POWER || (kind == BoardState.WIRE && board.isPowered(index));
+    }
+
+    // Cells the route may pass through
+    private boolean isPassable(int index) {
+        int kind = board.getKind(index);
+        return kind == BoardState.EMPTY || (kind == BoardState.WIRE && !board.isPowered(index));
+    }
+
+    // Number of cells on the last found route
+    public int getPathLength() {
+        return pathLength;
+    }
+
+    // i-th cell of the last found route, 0 being the start cell
+    public int getPathCell(int i) {
+        return path[i];
+    }
+
+    // Direction of the step from the (i-1)-th into the i-th cell of the route (i > 0)
+    public int getStepDirection(int i) {
+        return stepDir[path[i]];
+    }
+
+    // Number of cells taken from the queue by the last search
+    public int getVisitedCount() {
+        return visitedCount;
+    }
+}
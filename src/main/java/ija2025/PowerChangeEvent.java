@@ -0,0 +1,106 @@
+/*
+ * PowerChangeEvent.java
+ *
+ * Authors: Zhdanovich Iaroslav (xzhdan00)
+ *          Malytskyi Denys     (xmalytd00)
+ *
+ * Description: Delta of a single player move in the "lightbulb" project: the
+ * rotated node with its previous rotation, the cells whose power state changed and
+ * the cells that gained or lost a disconnected end (a connection no neighbour answers).
+ * A committed batch of changes (see GameManager.beginBatch) is published as one
+ * event holding every node rotated in the batch with its rotation before the batch.
+ * Every change is packed into one int (cell index and change type), and the game
+ * manager reuses its event objects, so publishing a move does not allocate.
+ */
+
+
+package ija2025;
+
+public class PowerChangeEvent {
+    // Types of cell changes
+    public static final int POWER_GAINED = 0;
+    public static final int POWER_LOST = 1;
+    public static final int SOURCES_CHANGED = 2; // still powered, but by other sources
+    public static final int DISCONNECTED_END_CHANGED = 3; // see GameManager.hasDisconnectedEnd
+
+    private static final int TYPE_BITS = 2;
+    private static final int TYPE_MASK = (1 << TYPE_BITS) - 1;
+
+    // Rotated nodes and their rotations before the move
+    private final GameNode[] rotatedNodes;
+    private final int[] previousRotations;
+    private int rotatedCount = 0;
+    // Packed changes: index << TYPE_BITS | type
+    private final int[] changes;
+    private int changeCount = 0;
+
+    // Capacity is the number of board cells; a cell may change both its power and its
+    // disconnected end in one move
+    public PowerChangeEvent(int capacity) {
+        this.changes = new int[2 * capacity];
+        this.rotatedNodes = new GameNode[capacity];
+        this.previousRotations = new int[capacity];
+    }
+
+    // Starts a new move, dropping the changes of the previous one
+    void reset(GameNode rotatedNode, int previousRotation) {
+        clear();
+        addRotation(rotatedNode, previousRotation);
+    }
+
+    // Starts an empty event, rotations are added one by one
+    void clear() {
+        this.rotatedCount = 0;
+        this.changeCount = 0;
+    }
+
+    void addRotation(GameNode node, int previousRotation) {
+        rotatedNodes[rotatedCount] = node;
+        previousRotations[rotatedCount] = previousRotation;
+        rotatedCount++;
+    }
+
+    void addChange(int index, int type) {
+        changes[changeCount++] = (index << TYPE_BITS) | type;
+    }
+
+    // The rotated node of a single move (the first one of a batch)
+    public GameNode getRotatedNode() {
+        return rotatedNodes[0];
+    }
+
+    public int getRotatedIndex() {
+        return rotatedNodes[0].getIndex();
+    }
+
+    public int getPreviousRotation() {
+        return previousRotations[0];
+    }
+
+    // Number of rotated nodes: 1 for a single move, any number for a batch
+    public int getRotatedCount() {
+        return rotatedCount;
+    }
+
+    public GameNode getRotatedNode(int i) {
+        return rotatedNodes[i];
+    }
+
+    public int getPreviousRotation(int i) {
+        return previousRotations[i];
+    }
+
+    public int getChangeCount() {
+        return changeCount;
+    }
+
+    // Board index of the i-th changed cell
+    public int getChangedCell(int i) {
+        return changes[i] >>> TYPE_BITS;
+    }
+
+    // Type of the i-th change (POWER_GAINED, POWER_LOST, SOURCES_CHANGED or DISCONNECTED_END_CHANGED)
+    public int getChangeType(int i) {
+        return changes[i] & TYPE_MASK;
+    }
+}
@@ -0,0 +1,18 @@
+/*
+ * PowerChangeListener.java
+ *
+ * Authors: Zhdanovich Iaroslav (xzhdan00)
+ *          Malytskyi Denys     (xmalytd00)
+ *
+ * Description: Observer of player moves in the "lightbulb" project. Receives one
+ * PowerChangeEvent per move with the rotated cell and the cells whose power
+ * state changed, so views can update only what the move affected.
+ */
+
+
+package ija2025;
+
+public interface PowerChangeListener {
+    // Called after a move; the event is reused and is only valid during the call
+    void onPowerChanged(PowerChangeEvent event);
+}
@@ -0,0 +1,191 @@
+/*
+ * PowerFlowEngine.java
+ *
+ * Authors: Zhdanovich Iaroslav (xzhdan00)
+ *          Malytskyi Denys     (xmalytd00)
+ *
+ * Description: Incremental power propagation for the game grid. Keeps a snapshot
+ * of the directions every cell feeds power into, so that after a single tile is
+ * rotated only the part of the circuit downstream of that tile is switched off
+ * and flooded again. Reports the exact set of cells whose power state changed in a
+ * reusable buffer, giving the same result as a full recomputation from the power source.
+ * The engine follows boards with a single power source; on boards with several
+ * sources the game manager runs the full multi-source pass instead.
+ */
+
+
+package ija2025;
+
+import java.util.Arrays;
+
+public class PowerFlowEngine {
+    private final BoardState board;
+    private int powerIndex = -1;
+    // Source mask of the power source, given to every cell it powers
+    private int sourceMask = 0;
+
+    // Output direction masks as seen by the last recomputation, indexed by row * cols + col
+    private final int[] outMasks;
+    // Marks cells that were switched off during the current update
+    private final int[] marks;
+    private int markStamp = 0;
+    // Reusable work arrays holding cell indices (no recursion, no per-update allocation)
+    private final int[] stack;
+    private final int[] switchedOff;
+    // Cells whose power state changed during the last update
+    private final int[] changed;
+    private int changedCount = 0;
+
+    public PowerFlowEngine(BoardState board) {
+        this.board = board;
+        this.outMasks = new int[board.size()];
+        this.marks = new int[board.size()];
+        this.stack = new int[board.size()];
+        this.switchedOff = new int[board.size()];
+        this.changed = new int[board.size()];
+    }
+
+    // Takes a fresh snapshot of the board after a full power recomputation
+    // (powerIndex -1 switches incremental updates off)
+    public void resync(int powerIndex) {
+        this.powerIndex = powerIndex;
+        if (powerIndex < 0) {
+            return;
+        }
+        this.sourceMask = board.getSources(powerIndex);
+        for (int index = 0; index < board.size(); index++) {
+            outMasks[index] = board.outputMask(index);
+        }
+    }
+
+    // Recomputes power after the given cell was rotated and returns the number of cells
+    // whose power state changed (see getChangedCell)
+    public int onCellRotated(int rotatedIndex) {
+        changedCount = 0;
+        if (powerIndex < 0) {
+            return 0;
+        }
+
+        int oldMask = outMasks[rotatedIndex];
+        outMasks[rotatedIndex] = board.outputMask(rotatedIndex);
+
+        // Start a new generation of marks (wrap-around resets the array)
+        if (++markStamp == Integer.MAX_VALUE) {
+            Arrays.fill(marks, 0);
+            markStamp = 1;
+        }
+
+        // 1. Collect everything that may have been fed through the rotated cell before the rotation
+        boolean isSource = rotatedIndex == powerIndex;
+        int offCount = 0;
+        int top = 0;
+        if (!isSource && board.isPowered(rotatedIndex)) {
+            marks[rotatedIndex] = markStamp;
+            switchedOff[offCount++] = rotatedIndex;
+        }
+        if (isSource || board.isPowered(rotatedIndex)) {
+            stack[top++] = rotatedIndex;
+        }
+        boolean first = true;
+        while (top > 0) {
+            int index = stack[--top];
+            int mask = first ? oldMask : outMasks[index];
+            first = false;
+            for (int dir = 0; dir < 4; dir++) {
+                if ((mask & (1 << dir)) == 0) {
+                    continue;
+                }
+                int next = board.neighbour(index, dir);
+                if (next < 0 || next == powerIndex || marks[next] == markStamp || !board.isPowered(next)
+                        || !board.acceptsFrom(next, BoardState.opposite(dir))) {
+                    continue;
+                }
+                marks[next] = markStamp;
+                switchedOff[offCount++] = next;
+                if (board.getKind(next) == BoardState.WIRE) {
+                    stack[top++] = next;
+                }
+            }
+        }
+
+        // 2. Switch the collected part of the circuit off
+        for (int i = 0; i < offCount; i++) {
+            board.setPowered(switchedOff[i], false);
+        }
+
+        // 3. Cells still fed by a powered neighbour become the seeds of the new flood
+        for (int i = 0; i < offCount; i++) {
+            if (isFedByNeighbour(switchedOff[i])) {
+                power(switchedOff[i]);
+                stack[top++] = switchedOff[i];
+            }
+        }
+        if (isSource) {
+            stack[top++] = rotatedIndex;
+        } else if (!board.isPowered(rotatedIndex) && isFedByNeighbour(rotatedIndex)) {
+            power(rotatedIndex);
+            stack[top++] = rotatedIndex;
+            if (marks[rotatedIndex] != markStamp) {
+                changed[changedCount++] = rotatedIndex;
+            }
+        }
+
+        // 4. Flood from the seeds over unpowered cells
+        while (top > 0) {
+            int index = stack[--top];
+            int mask = outMasks[index];
+            for (int dir = 0; dir < 4; dir++) {
+                if ((mask & (1 << dir)) == 0) {
+                    continue;
+                }
+                int next = board.neighbour(index, dir);
+                if (next < 0 || next == powerIndex || board.isPowered(next)
+                        || !board.acceptsFrom(next, BoardState.opposite(dir))) {
+                    continue;
+                }
+                power(next);
+                if (marks[next] != markStamp) {
+                    changed[changedCount++] = next;
+                }
+                if (board.getKind(next) == BoardState.WIRE) {
+                    stack[top++] = next;
+                }
+            }
+        }
+
+        // 5. Cells that were switched off and did not get power back
+        for (int i = 0; i < offCount; i++) {
+            if (!board.isPowered(switchedOff[i])) {
+                changed[changedCount++] = switchedOff[i];
+            }
+        }
+        return changedCount;
+    }
+
+    // Index of the i-th cell changed by the last update
+    public int getChangedCell(int i) {
+        return changed[i];
+    }
+
+    private void power(int index) {
+        board.setPowered(index, true);
+        board.setSources(index, sourceMask);
+    }
+
+    // Checks whether a powered neighbour currently feeds power into the cell
+    private boolean isFedByNeighbour(int index) {
+        for (int dir = 0; dir < 4; dir++) {
+            if (!board.acceptsFrom(index, dir)) {
+                continue;
+            }
+            int supplier = board.neighbour(index, dir);
+            if (supplier < 0 || !board.isPowered(supplier)) {
+                continue;
+            }
+            if ((outMasks[supplier] & (1 << BoardState.opposite(dir))) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
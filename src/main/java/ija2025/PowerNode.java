@@ -6,8 +6,9 @@
  *
  * Description: Game node class that represents power source elements in the game grid.
  * Extends GameNode with functionality for managing active connection directions,
- * visual representation of a power node with active wire connections, and
- * custom rotation behavior. Includes lightning imagery and power-state visual effects.
+ * and visual representation of a power node with active wire connections.
+ * Every source has a color; energy of sources with different colors must not meet.
+ * Includes lightning imagery and power-state visual effects.
  */
 
 
@@ -17,33 +18,80 @@ import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.image.Image;
 import javafx.scene.paint.Color;
 
-import java.util.Arrays;
-import java.util.HashSet;
+import java.util.EnumSet;
 import java.util.Objects;
 import java.util.Set;
 
 public class PowerNode extends GameNode {
 
-    private Set<WireNode.Direction> activeDirections;
+    // Цвета энергии источников; первый - цвет по умолчанию
+    private static final Color[] SOURCE_COLORS = {
+            Color.rgb(255, 185, 1),
+            Color.rgb(60, 170, 255),
+            Color.rgb(90, 210, 90),
+            Color.rgb(200, 110, 255)
+    };
+    // Цвет клеток, в которых замкнуты источники разных цветов
+    public static final Color SHORT_COLOR = Color.MAGENTA;
+
     private static Image lightningImage = null;
+    private int color = 0;
+
     public PowerNode(int row, int col) {
         super(row, col);
-        // По умолчанию активны все направления
-        activeDirections = new HashSet<>(Arrays.asList(
-                WireNode.Direction.UP,
-                WireNode.Direction.RIGHT,
-                WireNode.Direction.DOWN,
-                WireNode.Direction.LEFT
-        ));
-        loadLightningImage();
+    }
+
+    @Override
+    protected int getKind() {
+        return BoardState.POWER;
+    }
+
+    // По умолчанию активны все направления
+    @Override
+    protected int initialMask() {
+        return BoardState.UP | BoardState.RIGHT | BoardState.DOWN | BoardState.LEFT;
     }
 
     public void setActiveDirections(Set<WireNode.Direction> directions) {
-        this.activeDirections = directions;
+        int mask = 0;
+        for (WireNode.Direction dir : directions) {
+            mask |= BoardState.bit(dir);
+        }
+        board.setMask(index, mask);
     }
 
     public Set<WireNode.Direction> getActiveDirections() {
-        return activeDirections;
+        Set<WireNode.Direction> directions = EnumSet.noneOf(WireNode.Direction.class);
+        for (WireNode.Direction dir : WireNode.Direction.values()) {
+            if (board.hasConnection(index, dir.ordinal())) {
+                directions.add(dir);
+            }
+        }
+        return directions;
+    }
+
+    // Активные направления в виде битовой маски (см. BoardState)
+    public int getActiveMask() {
+        return board.getMask(index);
+    }
+
+    public int getColor() {
+        return color;
+    }
+
+    // Задаёт цвет источника (0-31); цвета сверх палитры повторяют её по кругу
+    public void setColor(int color) {
+        if (color < 0 || color >= Integer.SIZE) {
+            throw new IllegalArgumentException("Invalid source color: " + color);
+        }
+        this.color = color;
+        if (board != null) {
+            board.markDirty(index);
+        }
+    }
+
+    public static Color colorOf(int color) {
+        return SOURCE_COLORS[color % SOURCE_COLORS.length];
     }
 
     private void loadLightningImage() {
@@ -56,6 +104,8 @@ public class PowerNode extends GameNode {
 
     @Override
     public void draw(GraphicsContext gc) {
+        // Изображение загружается только при отрисовке, генерация доски обходится без JavaFX
+        loadLightningImage();
         double cellSize = gameManager.getCellSize();
         double x = col * cellSize;
         double y = row * cellSize;
@@ -76,6 +126,8 @@ public class PowerNode extends GameNode {
         // Размер квадрата
         double squareSize = cellSize * 0.5;
 
+        int activeDirections = board.getMask(index);
+
         // Рисуем прозрачный фон
         gc.clearRect(x, y, cellSize, cellSize);
 
@@ -89,28 +141,28 @@ public class PowerNode extends GameNode {
         gc.strokeRect(centerX - squareSize/2, centerY - squareSize/2, squareSize, squareSize);
 
         // UP
-        if (activeDirections.contains(WireNode.Direction.UP)) {
+        if ((activeDirections & BoardState.UP) != 0) {
             // Темно-серый переход
             gc.setFill(Color.rgb(30, 30, 30));
             gc.fillRect(centerX - connectionJointWidth / 2, centerY - squareSize/2 - connectionJointLength,
                     connectionJointWidth, connectionJointLength);
 
             // Провод (с перекрытием)
-            gc.setFill(Color.rgb(255, 185, 1));
+            gc.setFill(colorOf(color));
             gc.fillRect(centerX - connectionWidth / 2, y - overlap,
                     connectionWidth,
                     centerY - squareSize/2 - connectionJointLength - y + overlap);
         }
 
         // RIGHT
-        if (activeDirections.contains(WireNode.Direction.RIGHT)) {
+        if ((activeDirections & BoardState.RIGHT) != 0) {
             // Темно-серый переход
             gc.setFill(Color.rgb(30, 30, 30));
             gc.fillRect(centerX + squareSize/2, centerY - connectionJointWidth / 2,
                     connectionJointLength, connectionJointWidth);
 
             // Провод (с перекрытием)
-            gc.setFill(Color.rgb(255, 185, 1));
+            gc.setFill(colorOf(color));
             gc.fillRect(centerX + squareSize/2 + connectionJointLength,
                     centerY - connectionWidth / 2,
                     x + cellSize - (centerX + squareSize/2 + connectionJointLength) + overlap,
@@ -118,14 +170,14 @@ public class PowerNode extends GameNode {
         }
 
         // DOWN
-        if (activeDirections.contains(WireNode.Direction.DOWN)) {
+        if ((activeDirections & BoardState.DOWN) != 0) {
             // Темно-серый переход
             gc.setFill(Color.rgb(30, 30, 30));
             gc.fillRect(centerX - connectionJointWidth / 2, centerY + squareSize/2,
                     connectionJointWidth, connectionJointLength);
 
             // Провод (с перекрытием)
-            gc.setFill(Color.rgb(255, 185, 1));
+            gc.setFill(colorOf(color));
             gc.fillRect(centerX - connectionWidth / 2,
                     centerY + squareSize/2 + connectionJointLength,
                     connectionWidth,
@@ -133,14 +185,14 @@ public class PowerNode extends GameNode {
         }
 
         // LEFT
-        if (activeDirections.contains(WireNode.Direction.LEFT)) {
+        if ((activeDirections & BoardState.LEFT) != 0) {
             // Темно-серый переход
             gc.setFill(Color.rgb(30, 30, 30));
             gc.fillRect(centerX - squareSize/2 - connectionJointLength, centerY - connectionJointWidth / 2,
                     connectionJointLength, connectionJointWidth);
 
             // Провод (с перекрытием)
-            gc.setFill(Color.rgb(255, 185, 1));
+            gc.setFill(colorOf(color));
             gc.fillRect(x - overlap, centerY - connectionWidth / 2,
                     centerX - squareSize/2 - connectionJointLength - x + overlap,
                     connectionWidth);
@@ -165,37 +217,4 @@ public class PowerNode extends GameNode {
         }
     }
 
-
-    @Override
-    public void rotate() {
-        super.rotate();
-        // Создаем новый набор активных направлений после поворота
-        Set<WireNode.Direction> newDirections = new HashSet<>();
-
-        // Поворачиваем каждое активное направление на 90 градусов
-        for (WireNode.Direction dir : activeDirections) {
-            switch (dir) {
-                case UP:
-                    newDirections.add(WireNode.Direction.RIGHT);
-                    break;
-                case RIGHT:
-                    newDirections.add(WireNode.Direction.DOWN);
-                    break;
-                case DOWN:
-                    newDirections.add(WireNode.Direction.LEFT);
-                    break;
-                case LEFT:
-                    newDirections.add(WireNode.Direction.UP);
-                    break;
-            }
-        }
-
-        // Обновляем активные направления
-        activeDirections = newDirections;
-
-        // Обновляем поток энергии для переподключения элементов
-        if (gameManager != null) {
-            gameManager.updatePowerFlow();
-        }
-    }
 }
@@ -0,0 +1,112 @@
+/*
+ * SpanningTreeGenerator.java
+ *
+ * Authors: Zhdanovich Iaroslav (xzhdan00)
+ *          Malytskyi Denys     (xmalytd00)
+ *
+ * Description: Board generator for the "lightbulb" project that builds a random
+ * spanning tree of the whole grid rooted at the power source (randomized Prim's
+ * algorithm). Leaves of the tree become bulbs facing their parent, inner cells
+ * become wires connected to their tree neighbours. Every cell is filled in linear
+ * time, the solved board is always fully powered and no repair passes are needed.
+ */
+
+
+package ija2025;
+
+import java.util.Random;
+
+public class SpanningTreeGenerator {
+    // Cell states while the tree grows
+    private static final byte OUTSIDE = 0;
+    private static final byte FRONTIER = 1;
+    private static final byte IN_TREE = 2;
+
+    private final GameManager gameManager;
+    private final BoardState board;
+    private final Random random;
+
+    // Tree edges of every cell as a connection mask (see BoardState)
+    private final int[] masks;
+    private final byte[] state;
+    // Cells adjacent to the tree; a random one is removed by swapping in the last one
+    private final int[] frontier;
+    private int frontierSize = 0;
+
+    public SpanningTreeGenerator(GameManager gameManager, Random random) {
+        this.gameManager = gameManager;
+        this.board = gameManager.getBoardState();
+        this.random = random;
+        this.masks = new int[board.size()];
+        this.state = new byte[board.size()];
+        this.frontier = new int[board.size()];
+    }
+
+    // Fills the empty board and returns the power source
+    public PowerNode generate() {
+        int root = random.nextInt(board.size());
+        growTree(root);
+        return placeNodes(root);
+    }
+
+    private void growTree(int root) {
+        addToTree(root);
+        int[] candidates = new int[4];
+
+        while (frontierSize > 0) {
+            int pick = random.nextInt(frontierSize);
+            int cell = frontier[pick];
+            frontier[pick] = frontier[--frontierSize];
+
+            // Attach the cell to a random neighbour that is already in the tree
+            int count = 0;
+            for (int dir = 0; dir < 4; dir++) {
+                int next = board.neighbour(cell, dir);
+                if (next >= 0 && state[next] == IN_TREE) {
+                    candidates[count++] = dir;
+                }
+            }
+            int dir = candidates[random.nextInt(count)];
+            masks[cell] |= 1 << dir;
+            masks[board.neighbour(cell, dir)] |= 1 << BoardState.opposite(dir);
+
+            addToTree(cell);
+        }
+    }
+
+    private void addToTree(int cell) {
+        state[cell] = IN_TREE;
+        for (int dir = 0; dir < 4; dir++) {
+            int next = board.neighbour(cell, dir);
+            if (next >= 0 && state[next] == OUTSIDE) {
+                state[next] = FRONTIER;
+                frontier[frontierSize++] = next;
+            }
+        }
+    }
+
+    private PowerNode placeNodes(int root) {
+        PowerNode powerNode = null;
+        for (int cell = 0; cell < board.size(); cell++) {
+            int row = board.row(cell);
+            int col = board.col(cell);
+            int mask = masks[cell];
+
+            if (cell == root) {
+                powerNode = new PowerNode(row, col);
+                gameManager.placeNode(powerNode);
+                board.setMask(cell, mask);
+            } else if (Integer.bitCount(mask) == 1) {
+                // A leaf: the bulb faces its parent
+                LightBulbNode bulb = new LightBulbNode(row, col);
+                bulb.setRotation(Integer.numberOfTrailingZeros(mask) * 90);
+                gameManager.placeNode(bulb);
+            } else {
+                WireNode wire = new WireNode(row, col);
+                gameManager.placeNode(wire);
+                board.setMask(cell, mask);
+            }
+        }
+        return powerNode;
+    }
+}
@@ -7,8 +7,8 @@
  * Description: Game node class that represents wire elements in the game grid,
  * extending GameNode with functionality for handling wire connections in multiple
  * directions. Implements drawing logic for connected wire segments with visual
- * indicators for power status and disconnected ends, and rotation behavior that
- * properly updates connection directions.
+ * indicators for power status and disconnected ends. Connections are kept as a
+ * bit mask on the board, so rotation only shifts the mask.
  */
 
 
@@ -16,13 +16,12 @@ package ija2025;
 
 import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.paint.Color;
-import java.util.HashSet;
+import java.util.EnumSet;
 import java.util.Set;
 
 // Class representing a wire element on the game grid
 public class WireNode extends GameNode {
-    // Set of directions where wire has connections
-    private Set<Direction> connections = new HashSet<>();
+    private static final Direction[] DIRECTIONS = Direction.values();
 
     // Enum for connection directions
     public enum Direction {
@@ -71,19 +70,36 @@ public class WireNode extends GameNode {
         super(row, col);
     }
 
+    @Override
+    protected int getKind() {
+        return BoardState.WIRE;
+    }
+
     // Add connection in specified direction
     public void addConnection(Direction direction) {
-        connections.add(direction);
+        board.addConnection(index, direction.ordinal());
     }
 
     // Get all connected directions
     public Set<Direction> getConnectedDirections() {
-        return new HashSet<>(connections);
+        Set<Direction> directions = EnumSet.noneOf(Direction.class);
+        int mask = board.getMask(index);
+        for (Direction dir : DIRECTIONS) {
+            if ((mask & BoardState.bit(dir)) != 0) {
+                directions.add(dir);
+            }
+        }
+        return directions;
+    }
+
+    // Get connected directions as a bit mask (see BoardState)
+    public int getConnectionMask() {
+        return board.getMask(index);
     }
 
     // Check if direction is connected
     public boolean isDirectionConnected(Direction direction) {
-        return connections.contains(direction);
+        return board.hasConnection(index, direction.ordinal());
     }
 
     @Override
@@ -102,8 +118,15 @@ public class WireNode extends GameNode {
         // Draw transparent background
         gc.clearRect(x, y, cellSize, cellSize);
 
+        int connections = board.getMask(index);
+        boolean hasDisconnectedEnd = board.isDisconnected(index);
+        boolean isPowered = board.isPowered(index);
+
         // Draw wires in connected directions
-        for (Direction dir : connections) {
+        for (Direction dir : DIRECTIONS) {
+            if ((connections & BoardState.bit(dir)) == 0) {
+                continue;
+            }
             double wireX = 0;
             double wireY = 0;
             double wireWidth = 0;
@@ -141,7 +164,7 @@ public class WireNode extends GameNode {
             if (hasDisconnectedEnd) {
                 innerWireColor = Color.RED;
             } else {
-                innerWireColor = isPowered ? Color.rgb(255, 185, 1) : Color.rgb(150, 150, 150);
+                innerWireColor = isPowered ? gameManager.getPowerColor(index) : Color.rgb(150, 150, 150);
             }
 
             gc.setFill(innerWireColor);
@@ -149,13 +172,13 @@ public class WireNode extends GameNode {
         }
 
         // Draw connection node in center if more than one connection
-        if (connections.size() > 1) {
+        if (Integer.bitCount(connections) > 1) {
             // Determine node color, same as wires
             Color nodeColor;
             if (hasDisconnectedEnd) {
                 nodeColor = Color.RED;
             } else {
-                nodeColor = isPowered ? Color.rgb(255, 185, 1) : Color.rgb(150, 150, 150);
+                nodeColor = isPowered ? gameManager.getPowerColor(index) : Color.rgb(150, 150, 150);
             }
 
             // Connection node size same as wire thickness
@@ -170,39 +193,18 @@ public class WireNode extends GameNode {
         }
     }
 
-    @Override
-    public void rotate() {
-        super.rotate();
-
-        // Update connections when rotating
-        Set<Direction> newConnections = new HashSet<>();
-        for (Direction dir : connections) {
-            // Rotate each direction by 90 degrees
-            int newDegrees = (dir.getDegrees() + 90) % 360;
-            newConnections.add(Direction.fromDegrees(newDegrees));
-        }
-
-        connections = newConnections;
-    }
-
-    private boolean hasDisconnectedEnd = false;
-
     // Check if wire has disconnected end
     public boolean hasDisconnectedEnd() {
-        return hasDisconnectedEnd;
+        return board.isDisconnected(index);
     }
 
     // Set disconnected end state
     public void setDisconnectedEnd(boolean disconnected) {
-        this.hasDisconnectedEnd = disconnected;
+        board.setDisconnected(index, disconnected);
     }
 
     // Remove connection in specified direction
     public boolean removeConnection(Direction direction) {
-        if (connections.contains(direction)) {
-            connections.remove(direction);
-            return true;
-        }
-        return false;
+        return board.removeConnection(index, direction.ordinal());
     }
 }
\ No newline at end of file
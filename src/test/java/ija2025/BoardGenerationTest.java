@@ -0,0 +1,71 @@
+/*
+ * BoardGenerationTest.java
+ *
+ * Authors: Zhdanovich Iaroslav (xzhdan00)
+ *          Malytskyi Denys     (xmalytd00)
+ *
+ * Description: Checks that every board generated by the "lightbulb" project can be
+ * won. Boards of both generators and all difficulties are generated from many seeds,
+ * every tile is turned back into the generated solution, and the game must then be
+ * won: all cells powered, no short circuits and no open wire ends.
+ */
+
+
+package ija2025;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BoardGenerationTest {
+    private static final int SEEDS = 300;
+    private static final int LARGE_SIZE = 100;
+    private static final int LARGE_SEEDS = 2;
+
+    @Test
+    void everyRoutedBoardIsWonFromItsSolution() {
+        checkGenerator(GameManager.GeneratorType.PATH_ROUTING);
+    }
+
+    @Test
+    void everySpanningTreeBoardIsWonFromItsSolution() {
+        checkGenerator(GameManager.GeneratorType.SPANNING_TREE);
+    }
+
+    @Test
+    void largeRoutedBoardsAreWonFromTheirSolution() {
+        for (int seed = 0; seed < LARGE_SEEDS; seed++) {
+            GameManager gameManager = new GameManager(GameManager.Difficulty.EASY, LARGE_SIZE, seed);
+            gameManager.setGeneratorType(GameManager.GeneratorType.PATH_ROUTING);
+            assertWonFromSolution(gameManager, LARGE_SIZE + "x" + LARGE_SIZE + " seed " + seed);
+        }
+    }
+
+    private static void checkGenerator(GameManager.GeneratorType generatorType) {
+        for (GameManager.Difficulty difficulty : GameManager.Difficulty.values()) {
+            for (int seed = 0; seed < SEEDS; seed++) {
+                GameManager gameManager = new GameManager(difficulty, seed);
+                gameManager.setGeneratorType(generatorType);
+                assertWonFromSolution(gameManager, generatorType + " " + difficulty + " seed " + seed);
+            }
+        }
+    }
+
+    // Generates the board, turns every tile back into the solution and checks the win
+    private static void assertWonFromSolution(GameManager gameManager, String board) {
+        gameManager.generateGameBoard();
+        GameNode[][] grid = gameManager.getGrid();
+        for (int row = 0; row < grid.length; row++) {
+            for (int col = 0; col < grid[row].length; col++) {
+                if (grid[row][col] == null) {
+                    continue;
+                }
+                for (int turns = gameManager.getRotationsToOriginal(row, col); turns > 0; turns--) {
+                    grid[row][col].rotate();
+                }
+            }
+        }
+        gameManager.updatePowerFlow();
+        assertTrue(gameManager.isGameWon(), board + " is not won from its solution");
+    }
+}
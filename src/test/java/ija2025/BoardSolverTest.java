@@ -0,0 +1,170 @@
+/*
+ * BoardSolverTest.java
+ *
+ * Authors: Zhdanovich Iaroslav (xzhdan00)
+ *          Malytskyi Denys     (xmalytd00)
+ *
+ * Description: Tests of the automatic solver of the "lightbulb" project, mostly on two
+ * small hand-built boards. On a line of a bulb, a straight power source and another bulb
+ * every tile is fixed by deduction alone and the solution is unique. On a 3x3
+ * "pinwheel" (a cross-shaped source in the middle, corner wires on the edges and bulbs
+ * in the corners) every edge wire can feed the bulb on either side of it, so the board
+ * has exactly two solutions, turning clockwise and counterclockwise, and cannot be
+ * solved without a decision. A search stopped by the decision limit again and again
+ * and resumed each time must take exactly the path of an uninterrupted one, restarts
+ * included.
+ */
+
+
+package ija2025;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.EnumSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BoardSolverTest {
+    // Decisions between two resumptions of the stepped search
+    private static final int RESUME_STEP = 5;
+
+    @Test
+    void tilesOfTheLineAreForcedByDeduction() {
+        GameManager gameManager = line();
+        BoardState board = gameManager.getBoardState();
+        BoardSolver solver = new BoardSolver(board);
+
+        assertTrue(solver.solve(gameManager), "line not solved");
+        assertEquals(3, solver.getForcedCount(), "forced tiles");
+        assertEquals(0, solver.getDecisionCount(), "decisions");
+        int[] expected = {BoardState.RIGHT, BoardState.LEFT | BoardState.RIGHT, BoardState.LEFT};
+        for (int index = 0; index < board.size(); index++) {
+            assertTrue(solver.isForced(index), "tile " + index + " not forced");
+            assertEquals(expected[index], BoardState.rotate(board.getMask(index), solver.getForcedTurns(index)),
+                    "forced orientation of tile " + index);
+        }
+    }
+
+    @Test
+    void pinwheelTilesAreNotForced() {
+        GameManager gameManager = pinwheel();
+        BoardState board = gameManager.getBoardState();
+        BoardSolver solver = new BoardSolver(board);
+
+        assertTrue(solver.solve(gameManager), "pinwheel not solved");
+        assertEquals(0, solver.getForcedCount(), "forced tiles");
+        for (int index = 0; index < board.size(); index++) {
+            assertFalse(solver.isForced(index), "tile " + index + " forced");
+        }
+        assertTrue(solver.getDecisionCount() > 0, "solved without a decision");
+    }
+
+    @Test
+    void lineHasAUniqueSolution() {
+        GameManager gameManager = line();
+        BoardSolver solver = new BoardSolver(gameManager.getBoardState());
+
+        assertEquals(1, solver.countSolutions(gameManager, 10), "solutions");
+        assertTrue(solver.hasUniqueSolution(gameManager), "line solution not unique");
+    }
+
+    @Test
+    void pinwheelHasTwoSolutions() {
+        GameManager gameManager = pinwheel();
+        BoardState board = gameManager.getBoardState();
+        BoardSolver solver = new BoardSolver(board);
+
+        assertEquals(2, solver.countSolutions(gameManager, 10), "solutions");
+        assertFalse(solver.hasUniqueSolution(gameManager), "pinwheel solution reported unique");
+
+        // The solution found first must win the game
+        assertTrue(solver.solve(gameManager), "pinwheel not solved");
+        GameNode[][] grid = gameManager.getGrid();
+        for (int index = 0; index < board.size(); index++) {
+            for (int turns = solver.getSolutionTurns(index); turns > 0; turns--) {
+                grid[board.row(index)][board.col(index)].rotate();
+            }
+        }
+        gameManager.updatePowerFlow();
+        assertTrue(gameManager.isGameWon(), "solution of the pinwheel is not won");
+    }
+
+    @Test
+    void searchStopsAtTheDecisionLimit() {
+        GameManager gameManager = pinwheel();
+        BoardSolver solver = new BoardSolver(gameManager.getBoardState());
+
+        solver.setDecisionLimit(0);
+        assertFalse(solver.solve(gameManager), "solved past the decision limit");
+        assertEquals(0, solver.getDecisionCount(), "decisions");
+        assertFalse(solver.isSolved(), "solved flag");
+        // Without a decision neither solution is found, so uniqueness cannot be proven
+        assertFalse(solver.hasUniqueSolution(gameManager), "uniqueness proven past the decision limit");
+
+        assertTrue(solver.resume(1), "resumed search not solved");
+        assertEquals(1, solver.getDecisionCount(), "decisions after resuming");
+    }
+
+    @Test
+    void resumedSearchFollowsTheUninterruptedOne() {
+        // A generated board whose search needs restarts
+        GameManager gameManager = new GameManager(GameManager.Difficulty.HARD, 50, 50, 2);
+        gameManager.setGeneratorType(GameManager.GeneratorType.SPANNING_TREE);
+        gameManager.generateGameBoard();
+        BoardState board = gameManager.getBoardState();
+
+        BoardSolver whole = new BoardSolver(board);
+        assertTrue(whole.solve(gameManager), "board not solved");
+        assertTrue(whole.getRestartCount() > 0, "board solved without a restart");
+
+        BoardSolver stepped = new BoardSolver(board);
+        stepped.setDecisionLimit(RESUME_STEP);
+        boolean solved = stepped.solve(gameManager);
+        for (int steps = whole.getDecisionCount() / RESUME_STEP + 1; !solved && steps > 0; steps--) {
+            solved = stepped.resume(stepped.getDecisionCount() + RESUME_STEP);
+        }
+
+        assertTrue(solved, "stepped search not solved");
+        assertEquals(whole.getDecisionCount(), stepped.getDecisionCount(), "decisions");
+        assertEquals(whole.getBacktrackCount(), stepped.getBacktrackCount(), "backtracks");
+        assertEquals(whole.getRestartCount(), stepped.getRestartCount(), "restarts");
+        for (int index = 0; index < board.size(); index++) {
+            assertEquals(whole.getSolutionTurns(index), stepped.getSolutionTurns(index), "solution of tile " + index);
+        }
+    }
+
+    // Bulb, straight source and bulb in a row, all turned away from the solution
+    private static GameManager line() {
+        GameManager gameManager = new GameManager(GameManager.Difficulty.EASY, 1, 3, 0);
+        gameManager.placeNode(new LightBulbNode(0, 0));
+        PowerNode power = new PowerNode(0, 1);
+        gameManager.placeNode(power);
+        power.setActiveDirections(EnumSet.of(WireNode.Direction.UP, WireNode.Direction.DOWN));
+        LightBulbNode bulb = new LightBulbNode(0, 2);
+        gameManager.placeNode(bulb);
+        bulb.setRotation(WireNode.Direction.DOWN.getDegrees());
+        return gameManager;
+    }
+
+    // Cross-shaped source in the middle, corner wires on the edges, bulbs in the corners
+    private static GameManager pinwheel() {
+        GameManager gameManager = new GameManager(GameManager.Difficulty.EASY, 3, 3, 0);
+        for (int row = 0; row < 3; row++) {
+            for (int col = 0; col < 3; col++) {
+                if (row == 1 && col == 1) {
+                    gameManager.placeNode(new PowerNode(row, col));
+                } else if ((row + col) % 2 == 1) {
+                    WireNode wire = new WireNode(row, col);
+                    gameManager.placeNode(wire);
+                    wire.addConnection(WireNode.Direction.UP);
+                    wire.addConnection(WireNode.Direction.RIGHT);
+                } else {
+                    gameManager.placeNode(new LightBulbNode(row, col));
+                }
+            }
+        }
+        return gameManager;
+    }
+}
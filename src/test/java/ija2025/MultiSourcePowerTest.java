@@ -0,0 +1,122 @@
+/*
+ * MultiSourcePowerTest.java
+ *
+ * Authors: Zhdanovich Iaroslav (xzhdan00)
+ *          Malytskyi Denys     (xmalytd00)
+ *
+ * Description: Tests of power flow with several sources in the "lightbulb" project.
+ * The generators place a single source, so the board is built by hand: a row of
+ * three straight wires between two sources facing each other. While the row is
+ * joined, both sources feed every wire, and sources of different colors short it.
+ * Turning the last wire splits the row, and turning it back joins it again; the
+ * published events must report the wires that are still powered, but by other
+ * sources, as SOURCES_CHANGED.
+ */
+
+
+package ija2025;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MultiSourcePowerTest {
+    private static final int COLS = 5;
+    private static final int LEFT_SOURCE = 1;
+    private static final int RIGHT_SOURCE = 1 << 1;
+    private static final int BOTH_SOURCES = LEFT_SOURCE | RIGHT_SOURCE;
+
+    @Test
+    void joinedRowIsFedByBothSources() {
+        GameManager gameManager = row();
+        BoardState board = gameManager.getBoardState();
+
+        gameManager.updatePowerFlow();
+        for (int index = 1; index < COLS - 1; index++) {
+            assertTrue(board.isPowered(index), "wire " + index + " not powered");
+            assertEquals(BOTH_SOURCES, board.getSources(index), "sources of wire " + index);
+        }
+        assertEquals(0, gameManager.getShortedCellCount(), "shorted cells");
+        assertTrue(gameManager.isGameWon(), "row of one color is not won");
+    }
+
+    @Test
+    void sourcesOfDifferentColorsShortTheJoinedRow() {
+        GameManager gameManager = row();
+        gameManager.getPowerNodes().get(1).setColor(1);
+
+        gameManager.updatePowerFlow();
+        assertEquals(COLS - 2, gameManager.getShortedCellCount(), "shorted cells");
+        assertFalse(gameManager.isGameWon(), "shorted row is won");
+    }
+
+    @Test
+    void turningAWireSplitsAndJoinsTheSources() {
+        GameManager gameManager = row();
+        BoardState board = gameManager.getBoardState();
+        gameManager.updatePowerFlow();
+        Map<Integer, Integer> changes = new HashMap<>();
+        gameManager.addPowerChangeListener(event -> {
+            for (int i = 0; i < event.getChangeCount(); i++) {
+                if (event.getChangeType(i) != PowerChangeEvent.DISCONNECTED_END_CHANGED) {
+                    changes.put(event.getChangedCell(i), event.getChangeType(i));
+                }
+            }
+        });
+
+        // A quarter turn of the last wire cuts it off from both of its neighbours
+        GameNode cut = gameManager.getGrid()[0][COLS - 2];
+        cut.rotate();
+        gameManager.updatePowerFlowAfterRotation(cut);
+        assertEquals(LEFT_SOURCE, board.getSources(1), "sources of wire 1 after the split");
+        assertEquals(LEFT_SOURCE, board.getSources(2), "sources of wire 2 after the split");
+        assertFalse(board.isPowered(3), "cut wire still powered");
+        assertEquals(Map.of(
+                1, PowerChangeEvent.SOURCES_CHANGED,
+                2, PowerChangeEvent.SOURCES_CHANGED,
+                3, PowerChangeEvent.POWER_LOST), changes, "changes of the split");
+
+        // Three more turns in one batch join the row again
+        changes.clear();
+        gameManager.beginBatch();
+        for (int turn = 0; turn < 3; turn++) {
+            cut.rotate();
+        }
+        PowerChangeEvent event = gameManager.commitBatch();
+        assertNotNull(event, "batch not published");
+        assertEquals(1, event.getRotatedCount(), "rotated nodes");
+        assertEquals(90, event.getPreviousRotation(), "rotation before the batch");
+        for (int index = 1; index < COLS - 1; index++) {
+            assertEquals(BOTH_SOURCES, board.getSources(index), "sources of wire " + index + " after the join");
+        }
+        assertEquals(Map.of(
+                1, PowerChangeEvent.SOURCES_CHANGED,
+                2, PowerChangeEvent.SOURCES_CHANGED,
+                3, PowerChangeEvent.POWER_GAINED), changes, "changes of the join");
+    }
+
+    // Two sources at the ends of a row facing each other, straight wires between them
+    private static GameManager row() {
+        GameManager gameManager = new GameManager(GameManager.Difficulty.EASY, 1, COLS, 0);
+        PowerNode left = new PowerNode(0, 0);
+        gameManager.placeNode(left);
+        left.setActiveDirections(EnumSet.of(WireNode.Direction.RIGHT));
+        for (int col = 1; col < COLS - 1; col++) {
+            WireNode wire = new WireNode(0, col);
+            gameManager.placeNode(wire);
+            wire.addConnection(WireNode.Direction.LEFT);
+            wire.addConnection(WireNode.Direction.RIGHT);
+        }
+        PowerNode right = new PowerNode(0, COLS - 1);
+        gameManager.placeNode(right);
+        right.setActiveDirections(EnumSet.of(WireNode.Direction.LEFT));
+        return gameManager;
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * PowerChangeEventTest.java
+ *
+ * Authors: Zhdanovich Iaroslav (xzhdan00)
+ *          Malytskyi Denys     (xmalytd00)
+ *
+ * Description: Tests of the move events published by the game manager of the
+ * "lightbulb" project. On a row of a power source, a straight wire and a bulb,
+ * turning the wire cuts the bulb off and leaves a disconnected end on every tile;
+ * turning it back in one batch closes the row again. Each event must list exactly
+ * the cells that lost or gained power and the cells whose disconnected end changed.
+ */
+
+
+package ija2025;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PowerChangeEventTest {
+    private static final int COLS = 3;
+
+    @Test
+    void turningTheWireReportsPowerAndDisconnectedEnds() {
+        GameManager gameManager = row();
+        gameManager.updatePowerFlow();
+        for (int index = 0; index < COLS; index++) {
+            assertFalse(gameManager.hasDisconnectedEnd(index), "disconnected end of closed cell " + index);
+        }
+        Set<List<Integer>> changes = new HashSet<>();
+        gameManager.addPowerChangeListener(event -> {
+            for (int i = 0; i < event.getChangeCount(); i++) {
+                changes.add(List.of(event.getChangedCell(i), event.getChangeType(i)));
+            }
+        });
+
+        // A quarter turn points the wire off the board, away from both neighbours
+        GameNode wire = gameManager.getGrid()[0][1];
+        wire.rotate();
+        gameManager.updatePowerFlowAfterRotation(wire);
+        for (int index = 0; index < COLS; index++) {
+            assertTrue(gameManager.hasDisconnectedEnd(index), "no disconnected end on cell " + index);
+        }
+        assertEquals(Set.of(
+                List.of(0, PowerChangeEvent.DISCONNECTED_END_CHANGED),
+                List.of(1, PowerChangeEvent.DISCONNECTED_END_CHANGED),
+                List.of(2, PowerChangeEvent.DISCONNECTED_END_CHANGED),
+                List.of(1, PowerChangeEvent.POWER_LOST),
+                List.of(2, PowerChangeEvent.POWER_LOST)), changes, "changes of the cut");
+
+        // Three more turns in one batch close the row again
+        changes.clear();
+        gameManager.beginBatch();
+        for (int turn = 0; turn < 3; turn++) {
+            wire.rotate();
+        }
+        gameManager.commitBatch();
+        for (int index = 0; index < COLS; index++) {
+            assertFalse(gameManager.hasDisconnectedEnd(index), "disconnected end of closed cell " + index);
+        }
+        assertEquals(Set.of(
+                List.of(0, PowerChangeEvent.DISCONNECTED_END_CHANGED),
+                List.of(1, PowerChangeEvent.DISCONNECTED_END_CHANGED),
+                List.of(2, PowerChangeEvent.DISCONNECTED_END_CHANGED),
+                List.of(1, PowerChangeEvent.POWER_GAINED),
+                List.of(2, PowerChangeEvent.POWER_GAINED)), changes, "changes of the batch");
+        assertTrue(gameManager.isGameWon(), "closed row is not won");
+    }
+
+    // Power source facing right, a straight wire and a bulb facing the wire
+    private static GameManager row() {
+        GameManager gameManager = new GameManager(GameManager.Difficulty.EASY, 1, COLS, 0);
+        PowerNode power = new PowerNode(0, 0);
+        gameManager.placeNode(power);
+        power.setActiveDirections(EnumSet.of(WireNode.Direction.RIGHT));
+        WireNode wire = new WireNode(0, 1);
+        gameManager.placeNode(wire);
+        wire.addConnection(WireNode.Direction.LEFT);
+        wire.addConnection(WireNode.Direction.RIGHT);
+        LightBulbNode bulb = new LightBulbNode(0, 2);
+        gameManager.placeNode(bulb);
+        bulb.setRotation(WireNode.Direction.LEFT.getDegrees());
+        return gameManager;
+    }
+}
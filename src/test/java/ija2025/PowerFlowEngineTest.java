@@ -0,0 +1,122 @@
+/*
+ * PowerFlowEngineTest.java
+ *
+ * Authors: Zhdanovich Iaroslav (xzhdan00)
+ *          Malytskyi Denys     (xmalytd00)
+ *
+ * Description: Randomized equivalence test of the incremental power propagation
+ * of the "lightbulb" project. Random tiles of random boards are rotated one at a
+ * time; after every rotation the cells reported by PowerFlowEngine must be exactly
+ * the cells whose power state changed, and the powered cells must be the same as
+ * after a full recomputation from the power source.
+ */
+
+
+package ija2025;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PowerFlowEngineTest {
+    private static final int BOARDS = 150;
+    private static final int ROTATIONS = 300;
+
+    @Test
+    void incrementalUpdateMatchesFullRecomputation() {
+        for (int seed = 0; seed < BOARDS; seed++) {
+            Random random = new Random(seed);
+            BoardState board = new BoardState(4 + random.nextInt(7), 4 + random.nextInt(7));
+            int powerIndex = fillRandomBoard(board, random);
+            checkRandomRotations(board, powerIndex, random, seed);
+        }
+    }
+
+    private static void checkRandomRotations(BoardState board, int powerIndex, Random random, long seed) {
+        PowerFlowEngine engine = new PowerFlowEngine(board);
+        fullRecomputation(board, powerIndex);
+        engine.resync(powerIndex);
+
+        boolean[] before = new boolean[board.size()];
+        boolean[] incremental = new boolean[board.size()];
+        boolean[] reported = new boolean[board.size()];
+        for (int move = 0; move < ROTATIONS; move++) {
+            int index = random.nextInt(board.size());
+            if (board.isEmpty(index)) {
+                continue;
+            }
+            for (int i = 0; i < board.size(); i++) {
+                before[i] = board.isPowered(i);
+                reported[i] = false;
+            }
+
+            board.rotateMask(index, 1);
+            int count = engine.onCellRotated(index);
+            for (int i = 0; i < count; i++) {
+                reported[engine.getChangedCell(i)] = true;
+            }
+            for (int i = 0; i < board.size(); i++) {
+                incremental[i] = board.isPowered(i);
+            }
+
+            fullRecomputation(board, powerIndex);
+            for (int i = 0; i < board.size(); i++) {
+                String where = "seed " + seed + " move " + move + " cell " + i;
+                assertEquals(board.isPowered(i), incremental[i], "powered state differs, " + where);
+                assertEquals(before[i] != incremental[i], reported[i], "changed set differs, " + where);
+            }
+        }
+    }
+
+    // One power source, random wires and bulbs in random orientations and a few empty cells
+    private static int fillRandomBoard(BoardState board, Random random) {
+        int powerIndex = random.nextInt(board.size());
+        board.setCell(powerIndex, BoardState.POWER, 1 + random.nextInt(15));
+        board.setPowered(powerIndex, true);
+        for (int index = 0; index < board.size(); index++) {
+            if (index == powerIndex) {
+                continue;
+            }
+            int kind = random.nextInt(10);
+            if (kind == 0) {
+                continue;
+            }
+            if (kind < 3) {
+                board.setCell(index, BoardState.BULB, 1 << random.nextInt(4));
+            } else {
+                board.setCell(index, BoardState.WIRE, 1 + random.nextInt(15));
+            }
+        }
+        return powerIndex;
+    }
+
+    // Reference flood from the power source over the whole board, following the same
+    // rules as the game: a wire passes power on through all its connections, a bulb
+    // is lit only by the neighbour it faces
+    private static void fullRecomputation(BoardState board, int powerIndex) {
+        board.unpowerAll();
+        int[] stack = new int[board.size()];
+        int top = 0;
+        stack[top++] = powerIndex;
+        while (top > 0) {
+            int index = stack[--top];
+            int mask = board.outputMask(index);
+            for (int dir = 0; dir < 4; dir++) {
+                if ((mask & (1 << dir)) == 0) {
+                    continue;
+                }
+                int next = board.neighbour(index, dir);
+                if (next < 0 || board.isEmpty(next) || board.isPowered(next)
+                        || !board.acceptsFrom(next, BoardState.opposite(dir))) {
+                    continue;
+                }
+                board.setPowered(next, true);
+                if (board.getKind(next) == BoardState.WIRE) {
+                    stack[top++] = next;
+                }
+            }
+        }
+    }
+}
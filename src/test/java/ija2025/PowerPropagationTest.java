@@ -0,0 +1,155 @@
+/*
+ * PowerPropagationTest.java
+ *
+ * Authors: Zhdanovich Iaroslav (xzhdan00)
+ *          Malytskyi Denys     (xmalytd00)
+ *
+ * Description: Worst-case test of power propagation of the "lightbulb" project.
+ * A 1000x1000 board holds a single wire that spirals from the power source in the
+ * corner to a bulb in the middle, so power has to travel through every one of the
+ * million cells in a row. Both the full power pass of the game manager and a single
+ * incremental update after the first wire is rotated into place must power the whole
+ * spiral. They run on a thread with a small stack; a recursive flood would overflow
+ * it long before the end of the spiral.
+ */
+
+
+package ija2025;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.EnumSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PowerPropagationTest {
+    private static final int SIZE = 1000;
+    private static final long SMALL_STACK = 256 * 1024;
+
+    @Test
+    void fullPowerPassReachesTheEndOfTheSpiral() throws InterruptedException {
+        int[] spiral = spiralOrder(SIZE);
+        GameManager gameManager = new GameManager(GameManager.Difficulty.EASY, SIZE, 0);
+        placeSpiral(gameManager, spiral);
+
+        Object[] result = new Object[1];
+        runOnSmallStack(() -> gameManager.updatePowerFlow(), result);
+        assertNull(result[0], "power pass failed");
+
+        assertAllPowered(gameManager.getBoardState(), spiral);
+        assertTrue(gameManager.isGameWon(), "spiral board is not won");
+    }
+
+    @Test
+    void rotatingTheFirstWireFloodsTheSpiral() throws InterruptedException {
+        int[] spiral = spiralOrder(SIZE);
+        GameManager gameManager = new GameManager(GameManager.Difficulty.EASY, SIZE, 0);
+        placeSpiral(gameManager, spiral);
+        BoardState board = gameManager.getBoardState();
+
+        // The first wire is straight; a quarter turn disconnects it from the source
+        int firstWire = spiral[1];
+        board.rotateMask(firstWire, 1);
+        board.setPowered(spiral[0], true);
+        PowerFlowEngine engine = new PowerFlowEngine(board);
+        engine.resync(spiral[0]);
+
+        Object[] result = new Object[1];
+        runOnSmallStack(() -> {
+            board.rotateMask(firstWire, 1);
+            result[0] = engine.onCellRotated(firstWire);
+        }, result);
+        assertTrue(result[0] instanceof Integer, "power pass failed: " + result[0]);
+
+        assertAllPowered(board, spiral);
+        assertEquals(spiral.length - 1, (int) (Integer) result[0], "changed cells");
+    }
+
+    // Runs the update on a thread with a small stack; a failure is left in the result
+    private static void runOnSmallStack(Runnable update, Object[] result) throws InterruptedException {
+        Thread pass = new Thread(null, () -> {
+            try {
+                update.run();
+            } catch (Throwable e) {
+                result[0] = e;
+            }
+        }, "power-pass", SMALL_STACK);
+        pass.start();
+        pass.join();
+    }
+
+    private static void assertAllPowered(BoardState board, int[] spiral) {
+        for (int index : spiral) {
+            assertTrue(board.isPowered(index), "cell " + board.row(index) + "," + board.col(index) + " not powered");
+        }
+    }
+
+    // Cell indices of a size x size board in clockwise spiral order from the top-left corner
+    private static int[] spiralOrder(int size) {
+        int[] order = new int[size * size];
+        int count = 0;
+        int top = 0;
+        int bottom = size - 1;
+        int left = 0;
+        int right = size - 1;
+        while (top <= bottom && left <= right) {
+            for (int col = left; col <= right; col++) {
+                order[count++] = top * size + col;
+            }
+            for (int row = top + 1; row <= bottom; row++) {
+                order[count++] = row * size + right;
+            }
+            if (top < bottom) {
+                for (int col = right - 1; col >= left; col--) {
+                    order[count++] = bottom * size + col;
+                }
+            }
+            if (left < right) {
+                for (int row = bottom - 1; row > top; row--) {
+                    order[count++] = row * size + left;
+                }
+            }
+            top++;
+            bottom--;
+            left++;
+            right--;
+        }
+        return order;
+    }
+
+    // Power source on the first cell of the path, a bulb on the last one and wires
+    // joining every cell to the one before and after it
+    private static void placeSpiral(GameManager gameManager, int[] path) {
+        int last = path.length - 1;
+        PowerNode power = new PowerNode(path[0] / SIZE, path[0] % SIZE);
+        gameManager.placeNode(power);
+        power.setActiveDirections(EnumSet.of(direction(path[0], path[1])));
+
+        for (int i = 1; i < last; i++) {
+            WireNode wire = new WireNode(path[i] / SIZE, path[i] % SIZE);
+            gameManager.placeNode(wire);
+            wire.addConnection(direction(path[i], path[i - 1]));
+            wire.addConnection(direction(path[i], path[i + 1]));
+        }
+
+        LightBulbNode bulb = new LightBulbNode(path[last] / SIZE, path[last] % SIZE);
+        gameManager.placeNode(bulb);
+        bulb.setRotation(direction(path[last], path[last - 1]).getDegrees());
+    }
+
+    // Direction from a cell to its neighbour
+    private static WireNode.Direction direction(int from, int to) {
+        if (to == from - SIZE) {
+            return WireNode.Direction.UP;
+        }
+        if (to == from + 1) {
+            return WireNode.Direction.RIGHT;
+        }
+        if (to == from + SIZE) {
+            return WireNode.Direction.DOWN;
+        }
+        return WireNode.Direction.LEFT;
+    }
+}